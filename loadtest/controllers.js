@@ -0,0 +1,133 @@
+// k6 load test of every controller against a service running with the `loadtest` profile.
+//   k6 run -e BASE_URL=http://localhost:8080 -e STUDENTS=30 loadtest/controllers.js
+import http from 'k6/http';
+import { check, group } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const STUDENTS = parseInt(__ENV.STUDENTS || '30');
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+const gradingDuration = new Trend('grading_activity_duration', true);
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            exec: 'reads',
+            rate: parseInt(__ENV.READ_RATE || '50'),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '1m',
+            preAllocatedVUs: 20,
+            maxVUs: 200,
+        },
+        writes: {
+            executor: 'constant-arrival-rate',
+            exec: 'writes',
+            rate: parseInt(__ENV.WRITE_RATE || '10'),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '1m',
+            preAllocatedVUs: 10,
+            maxVUs: 100,
+        },
+        grading: {
+            executor: 'per-vu-iterations',
+            exec: 'grading',
+            vus: parseInt(__ENV.GRADING_VUS || '2'),
+            iterations: parseInt(__ENV.GRADING_ITERATIONS || '3'),
+            maxDuration: __ENV.DURATION || '1m',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{scenario:reads}': ['p(95)<300'],
+    },
+};
+
+function id(prefix) {
+    return `${prefix}-${Date.now()}-${Math.floor(Math.random() * 1e9)}`;
+}
+
+function seedActivity(teacherId, courseId, activityId) {
+    http.post(`${BASE_URL}/activity/add`, JSON.stringify({
+        id: activityId,
+        name: 'Tarea de carga',
+        teacherId: teacherId,
+        courseId: courseId,
+        unitTheme: 'Estructuras de control',
+        expectedLearningOutcomes: 'Aplica estructuras repetitivas.',
+        didacticStrategies: 'Calcular el promedio de una lista de notas.',
+        assessmentRubric: 'Comprensión del problema (3.33), Diseño del algoritmo (3.33), Uso de estructuras de control (3.34)',
+    }), JSON_HEADERS);
+}
+
+export function setup() {
+    const teacherId = id('teacher');
+    const courseId = id('course');
+    const activityId = id('activity');
+
+    http.post(`${BASE_URL}/user/add`, JSON.stringify({ id: teacherId, mail: `${teacherId}@example.com`, displayName: 'Docente' }), JSON_HEADERS);
+    http.post(`${BASE_URL}/course/add`, JSON.stringify({ id: courseId, subject: 'Fundamentos de Programación', teacherId: teacherId }), JSON_HEADERS);
+    seedActivity(teacherId, courseId, activityId);
+
+    const students = [];
+    for (let i = 0; i < STUDENTS; i++) {
+        students.push({ id: `student-${i}`, name: `Estudiante ${i}`, email: `student-${i}@example.com` });
+    }
+    http.post(`${BASE_URL}/student/course/${courseId}/add-students`, JSON.stringify(students), JSON_HEADERS);
+
+    return { teacherId, courseId, activityId, studentIds: students.map((s) => s.id) };
+}
+
+export function reads(data) {
+    group('reads', () => {
+        const responses = http.batch([
+            ['GET', `${BASE_URL}/user/${data.teacherId}`],
+            ['GET', `${BASE_URL}/course/${data.courseId}`],
+            ['GET', `${BASE_URL}/course/teacher/${data.teacherId}`],
+            ['GET', `${BASE_URL}/activity/${data.activityId}`],
+            ['GET', `${BASE_URL}/activity/course/${data.courseId}`],
+            ['GET', `${BASE_URL}/activity/teacher/${data.teacherId}/last-updated`],
+            ['GET', `${BASE_URL}/student/course/${data.courseId}/list`],
+            ['GET', `${BASE_URL}/ai-assessment/activity/${data.activityId}/list`],
+        ]);
+        responses.forEach((r) => check(r, { 'read ok': (res) => res.status === 200 }));
+    });
+}
+
+export function writes(data) {
+    group('writes', () => {
+        const studentId = id('student');
+        const student = { id: studentId, name: 'Estudiante de carga', email: `${studentId}@example.com` };
+        check(http.post(`${BASE_URL}/student/course/${data.courseId}/add`, JSON.stringify(student), JSON_HEADERS),
+            { 'student added': (r) => r.status === 200 });
+        check(http.put(`${BASE_URL}/student/course/${data.courseId}/update`, JSON.stringify({ ...student, name: 'Editado' }), JSON_HEADERS),
+            { 'student updated': (r) => r.status === 200 });
+        check(http.del(`${BASE_URL}/student/${studentId}/course/${data.courseId}/delete`),
+            { 'student deleted': (r) => r.status === 200 });
+    });
+}
+
+export function grading(data) {
+    group('grading', () => {
+        // A fresh activity per iteration so every submission is pending
+        const activityId = id('activity');
+        seedActivity(data.teacherId, data.courseId, activityId);
+        const submissions = data.studentIds.map((studentId) => ({
+            id: studentId,
+            submission: 'public class Promedio { public static void main(String[] args) { } }',
+            fileType: 'java',
+            status: 'pending',
+        }));
+        http.post(`${BASE_URL}/ai-assessment/activity/${activityId}/add-submissions`, JSON.stringify(submissions), JSON_HEADERS);
+
+        const assess = http.get(`${BASE_URL}/ai-assessment/activity/${activityId}/assess`, { timeout: '300s' });
+        check(assess, { 'activity graded': (r) => r.status === 200 });
+        gradingDuration.add(assess.timings.duration);
+
+        const reAssessment = http.post(
+            `${BASE_URL}/ai-assessment/activity/${activityId}/student/${data.studentIds[0]}/re-assessment`,
+            'Considera la validación de entradas.', { headers: { 'Content-Type': 'text/plain' } });
+        check(reAssessment, { 're-assessed': (r) => r.status === 200 });
+    });
+}
@@ -0,0 +1,100 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.CourseDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of grading one submission: prompt rendering, parsing of a recorded gpt-4o response
+ * and mapping to the Firestore document. Run with {@code ./mvnw -Pjmh compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradingHotPathBenchmark {
+
+    @Param({"3", "6", "12"})
+    public int rubricSize;
+
+    private CourseDTO course;
+    private ActivityDTO activity;
+    private AssessmentDTO assessment;
+    private String response;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = readResponse(rubricSize);
+
+        course = new CourseDTO();
+        course.setSubject("Fundamentos de Programación");
+
+        activity = new ActivityDTO();
+        activity.setName("Tarea 2: estructuras de control");
+        activity.setUnitTheme("Estructuras de control repetitivas");
+        activity.setExpectedLearningOutcomes("Aplica estructuras repetitivas para resolver problemas de cálculo.");
+        activity.setDidacticStrategies("Resolver un problema de cálculo de promedios con validación de entradas.");
+        StringBuilder rubric = new StringBuilder();
+        for (int i = 1; i <= rubricSize; i++) {
+            rubric.append("Componente ").append(i).append(": criterio de evaluación con descriptores de desempeño ")
+                    .append("excelente, bueno, regular e insuficiente; puntaje máximo ")
+                    .append(String.format("%.2f", 10.0 / rubricSize)).append(". ");
+        }
+        activity.setAssessmentRubric(rubric.toString());
+
+        assessment = new AssessmentDTO();
+        assessment.setId("student-1");
+        assessment.setSubmission("public class Promedio { public static void main(String[] args) { ".repeat(30));
+        assessment.setFileType("java");
+        assessment.setStatus("pending");
+    }
+
+    @Benchmark
+    public GradingSupport.GradingPrompt renderPrompt() {
+        return GradingSupport.getFormat(course, activity, assessment);
+    }
+
+    @Benchmark
+    public Object parseResponse() {
+        return GradingSupport.parseGrades(response);
+    }
+
+    @Benchmark
+    public Map<String, Object> buildDocData() {
+        AssessmentDTO.AIAssessment ai = new AssessmentDTO.AIAssessment();
+        ai.setAiGeneration(response);
+        ai.setGlobalGrade(8.5);
+        assessment.setAiAssessment(ai);
+        return GradingSupport.getDocData(assessment);
+    }
+
+    @Benchmark
+    public Map<String, Object> fullPath(Blackhole blackhole) {
+        blackhole.consume(GradingSupport.getFormat(course, activity, assessment));
+        AssessmentDTO.AIAssessment ai = new AssessmentDTO.AIAssessment();
+        ai.setAiGeneration(response);
+        GradingSupport.ParsedGrades grades = GradingSupport.parseGrades(response);
+        ai.setGlobalGrade(grades.globalGrade());
+        ai.setComponentsGrades(grades.componentsGrades());
+        assessment.setAiAssessment(ai);
+        return GradingSupport.getDocData(assessment);
+    }
+
+    private static String readResponse(int rubricSize) throws IOException {
+        String resource = "/grading-responses/rubric-" + rubricSize + ".json";
+        try (InputStream in = GradingHotPathBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("Missing recorded response: " + resource);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.service.ActivityManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,12 +18,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+import static org.springframework.ai.openai.samples.helloworld.dto.PageDTO.NEXT_CURSOR_HEADER;
+
 @RestController
 @RequestMapping("/activity")
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = NEXT_CURSOR_HEADER)
 @Tag(name = "Activity Management", description = "Endpoints for managing activities")
 public class ActivityController {
 
@@ -59,26 +61,41 @@ public class ActivityController {
     }
 
     @GetMapping(value = "/list")
-    @Operation(summary = "List all activities", description = "List all activities")
+    @Operation(
+            summary = "List all activities",
+            description = "List all activities",
+            parameters = {
+                    @Parameter(name = "cursor", description = "ID of the last item of the previous page (X-Next-Cursor header)"),
+                    @Parameter(name = "limit", description = "Maximum number of items of the page"),
+                    @Parameter(name = "fields", description = "'full' (default) or 'summary' to return only the fields shown in lists")
+            }
+    )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Activities listed successfully", content = @Content(
                     mediaType = "application/json",
                     array = @ArraySchema(schema = @Schema(implementation = ActivityDTO.class))
             )),
             @ApiResponse(responseCode = "204", description = "No activities found"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{ \"error\": \"Limit must be greater than zero\" }")
+            )),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
             ))
     })
-    public ResponseEntity<?> list() {
+    public ResponseEntity<?> list(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", defaultValue = "full") String fields
+    ) {
         try {
-            List<ActivityDTO> activities = activityService.list();
-            if (activities != null && !activities.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.OK).body(activities);
-            } else {
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-            }
+            return getPageResponse(activityService.list(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
             HashMap<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
@@ -91,7 +108,10 @@ public class ActivityController {
             summary = "Get activities by teacher ID",
             description = "Get activities by teacher ID",
             parameters = {
-                    @Parameter(name = "id", description = "Teacher ID", required = true)
+                    @Parameter(name = "id", description = "Teacher ID", required = true),
+                    @Parameter(name = "cursor", description = "ID of the last item of the previous page (X-Next-Cursor header)"),
+                    @Parameter(name = "limit", description = "Maximum number of items of the page"),
+                    @Parameter(name = "fields", description = "'full' (default) or 'summary' to return only the fields shown in lists")
             }
     )
     @ApiResponses(value = {
@@ -100,19 +120,27 @@ public class ActivityController {
                     array = @ArraySchema(schema = @Schema(implementation = ActivityDTO.class))
             )),
             @ApiResponse(responseCode = "204", description = "No activities found"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{ \"error\": \"Limit must be greater than zero\" }")
+            )),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
             ))
     })
-    public ResponseEntity<?> getActivitiesByTeacher(@PathVariable(value = "id") String id) {
+    public ResponseEntity<?> getActivitiesByTeacher(
+            @PathVariable(value = "id") String id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", defaultValue = "full") String fields
+    ) {
         try {
-            List<ActivityDTO> activities = activityService.getActivitiesByTeacher(id);
-            if (activities != null && !activities.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.OK).body(activities);
-            } else {
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-            }
+            return getPageResponse(activityService.getActivitiesByTeacher(id, cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
             HashMap<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
@@ -125,7 +153,10 @@ public class ActivityController {
             summary = "Get activities by course ID",
             description = "Get activities by course ID",
             parameters = {
-                    @Parameter(name = "id", description = "Course ID", required = true)
+                    @Parameter(name = "id", description = "Course ID", required = true),
+                    @Parameter(name = "cursor", description = "ID of the last item of the previous page (X-Next-Cursor header)"),
+                    @Parameter(name = "limit", description = "Maximum number of items of the page"),
+                    @Parameter(name = "fields", description = "'full' (default) or 'summary' to return only the fields shown in lists")
             }
     )
     @ApiResponses(value = {
@@ -134,19 +165,27 @@ public class ActivityController {
                     array = @ArraySchema(schema = @Schema(implementation = ActivityDTO.class))
             )),
             @ApiResponse(responseCode = "204", description = "No activities found"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{ \"error\": \"Limit must be greater than zero\" }")
+            )),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
             ))
     })
-    public ResponseEntity<?> getActivitiesByCourse(@PathVariable(value = "id") String id) {
+    public ResponseEntity<?> getActivitiesByCourse(
+            @PathVariable(value = "id") String id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", defaultValue = "full") String fields
+    ) {
         try {
-            List<ActivityDTO> activities = activityService.getActivitiesByCourse(id);
-            if (activities != null && !activities.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.OK).body(activities);
-            } else {
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-            }
+            return getPageResponse(activityService.getActivitiesByCourse(id, cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
             HashMap<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
@@ -366,5 +405,15 @@ public class ActivityController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
         }
     }
-}
 
+    private static ResponseEntity<?> getPageResponse(PageDTO<?> page) {
+        if (page.getItems().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
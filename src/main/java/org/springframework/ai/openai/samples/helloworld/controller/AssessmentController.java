@@ -9,15 +9,35 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.ai.openai.samples.helloworld.dto.ActivitySummaryDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingJobDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingRunStudentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.TranscribedSubmissionDTO;
 import org.springframework.ai.openai.samples.helloworld.service.AssessmentManagementService;
+import org.springframework.ai.openai.samples.helloworld.service.GradebookService;
+import org.springframework.ai.openai.samples.helloworld.service.GradingJobService;
+import org.springframework.ai.openai.samples.helloworld.service.GradingListener;
+import org.springframework.ai.openai.samples.helloworld.service.SubmissionTranscriptionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/ai-assessment")
@@ -25,11 +45,23 @@ import java.util.List;
 @Tag(name = "AIG Assessment Management", description = "Endpoints for managing AI-generated assessments")
 public class AssessmentController {
 
+    private static final long STREAM_TIMEOUT_MILLIS = 5 * 60 * 1000L;
+
     private final AssessmentManagementService assessmentService;
+    private final GradingJobService gradingJobService;
+    private final GradebookService gradebookService;
+    private final SubmissionTranscriptionService transcriptionService;
+    private final TaskExecutor taskExecutor;
 
     @Autowired
-    public AssessmentController(AssessmentManagementService assessmentService) {
+    public AssessmentController(AssessmentManagementService assessmentService, GradingJobService gradingJobService,
+                                GradebookService gradebookService, SubmissionTranscriptionService transcriptionService,
+                                TaskExecutor taskExecutor) {
         this.assessmentService = assessmentService;
+        this.gradingJobService = gradingJobService;
+        this.gradebookService = gradebookService;
+        this.transcriptionService = transcriptionService;
+        this.taskExecutor = taskExecutor;
     }
 
     @GetMapping("/activity/{id}/assess")
@@ -37,7 +69,8 @@ public class AssessmentController {
             summary = "Generate assessment for activity",
             description = "Generate assessment for activity",
             parameters = {
-                    @Parameter(name = "id", description = "Activity ID", required = true)
+                    @Parameter(name = "id", description = "Activity ID", required = true),
+                    @Parameter(name = "bypassCache", description = "Regrade even if an identical prompt was graded before")
             }
     )
     @ApiResponses(value = {
@@ -55,9 +88,12 @@ public class AssessmentController {
                     schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
             ))
     })
-    public ResponseEntity<?> generateAssessmentForActivity(@PathVariable(value = "id") String activityId) {
+    public ResponseEntity<?> generateAssessmentForActivity(
+            @PathVariable(value = "id") String activityId,
+            @RequestParam(value = "bypassCache", defaultValue = "false") boolean bypassCache
+    ) {
         try {
-            List<AssessmentDTO> assessments = assessmentService.generateAssessmentForActivity(activityId);
+            List<AssessmentDTO> assessments = assessmentService.generateAssessmentForActivity(activityId, bypassCache, GradingListener.NONE);
             return getResponseEntityList(assessments);
         } catch (IllegalArgumentException e) {
             HashMap<String, String> errorResponse = new HashMap<>();
@@ -70,12 +106,217 @@ public class AssessmentController {
         }
     }
 
+    @PostMapping("/activity/{id}/assess-job")
+    @Operation(
+            summary = "Submit grading job for activity",
+            description = "Start grading the pending submissions of an activity in the background and return the job to track it",
+            parameters = {
+                    @Parameter(name = "id", description = "Activity ID", required = true),
+                    @Parameter(name = "bypassCache", description = "Regrade even if an identical prompt was graded before")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Grading job submitted", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = GradingJobDTO.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Bad request\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> submitGradingJob(
+            @PathVariable(value = "id") String activityId,
+            @RequestParam(value = "bypassCache", defaultValue = "false") boolean bypassCache
+    ) {
+        try {
+            GradingJobDTO job = gradingJobService.submit(activityId, bypassCache);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/job/{jobId}")
+    @Operation(
+            summary = "Get grading job progress",
+            description = "Get graded, pending and failed counts of a grading job",
+            parameters = {
+                    @Parameter(name = "jobId", description = "Grading job ID", required = true)
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Grading job found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = GradingJobDTO.class)
+            )),
+            @ApiResponse(responseCode = "404", description = "Grading job not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Grading job not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> getGradingJob(@PathVariable(value = "jobId") String jobId) {
+        try {
+            GradingJobDTO job = gradingJobService.getJob(jobId);
+            if (job != null) {
+                return ResponseEntity.status(HttpStatus.OK).body(job);
+            } else {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Grading job not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/job/{jobId}/resume")
+    @Operation(
+            summary = "Resume grading job",
+            description = "Grade again only the submissions of a stopped or failed job that were queued, in flight or failed",
+            parameters = {
+                    @Parameter(name = "jobId", description = "Grading job ID", required = true),
+                    @Parameter(name = "bypassCache", description = "Regrade even if an identical prompt was graded before")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Grading job resumed", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = GradingJobDTO.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Bad request or job still running", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Bad request\"}")
+            )),
+            @ApiResponse(responseCode = "404", description = "Grading job not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Grading job not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> resumeGradingJob(
+            @PathVariable(value = "jobId") String jobId,
+            @RequestParam(value = "bypassCache", defaultValue = "false") boolean bypassCache
+    ) {
+        try {
+            GradingJobDTO job = gradingJobService.resume(jobId, bypassCache);
+            if (job != null) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+            } else {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Grading job not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/job/{jobId}/students")
+    @Operation(
+            summary = "Get grading job students",
+            description = "Get the checkpointed state, attempts and last error of each submission of a grading job",
+            parameters = {
+                    @Parameter(name = "jobId", description = "Grading job ID", required = true)
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Grading job found", content = @Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = GradingRunStudentDTO.class))
+            )),
+            @ApiResponse(responseCode = "404", description = "Grading job not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Grading job not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> getGradingJobStudents(@PathVariable(value = "jobId") String jobId) {
+        try {
+            List<GradingRunStudentDTO> students = gradingJobService.getJobStudents(jobId);
+            if (students != null) {
+                return ResponseEntity.status(HttpStatus.OK).body(students);
+            } else {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Grading job not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping(value = "/job/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream grading job events",
+            description = "Server-Sent Events stream: 'progress' with the job counts, 'assessment' with each graded AssessmentDTO " +
+                    "and a final 'completed' event",
+            parameters = {
+                    @Parameter(name = "jobId", description = "Grading job ID", required = true)
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "404", description = "Grading job not found")
+    })
+    public SseEmitter streamGradingJob(@PathVariable(value = "jobId") String jobId) {
+        SseEmitter emitter;
+        try {
+            emitter = gradingJobService.subscribe(jobId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Grading job not found");
+        }
+        return emitter;
+    }
+
     @GetMapping("/activity/{id}/list")
     @Operation(
             summary = "Get assessments by activity",
-            description = "Get assessments by activity",
+            description = "Get assessments by activity, optionally only those with the given status",
             parameters = {
-                    @Parameter(name = "id", description = "Activity ID", required = true)
+                    @Parameter(name = "id", description = "Activity ID", required = true),
+                    @Parameter(name = "status", description = "Status filter: reviewed, pending or missing")
             }
     )
     @ApiResponses(value = {
@@ -93,9 +334,12 @@ public class AssessmentController {
                     schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
             ))
     })
-    public ResponseEntity<?> getAssessmentByActivity(@PathVariable(value = "id") String activityId) {
+    public ResponseEntity<?> getAssessmentByActivity(
+            @PathVariable(value = "id") String activityId,
+            @RequestParam(value = "status", required = false) String status
+    ) {
         try {
-            List<AssessmentDTO> assessments = assessmentService.getAssessmentByActivity(activityId);
+            List<AssessmentDTO> assessments = assessmentService.getAssessmentByActivity(activityId, status);
             return getResponseEntityList(assessments);
         } catch (IllegalArgumentException e) {
             HashMap<String, String> errorResponse = new HashMap<>();
@@ -108,6 +352,155 @@ public class AssessmentController {
         }
     }
 
+    @PostMapping("/activity/{id}/reindex")
+    @Operation(
+            summary = "Reindex the assessments of an activity",
+            description = "Set the needsGrading flag used by bulk grading on the assessments of the activity that " +
+                    "do not have it; needed once for submissions written before the flag existed",
+            parameters = {
+                    @Parameter(name = "id", description = "Activity ID", required = true)
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Assessments reindexed", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"updated\": 12}")
+            )),
+            @ApiResponse(responseCode = "404", description = "Activity not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Activity not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> reindexAssessments(@PathVariable(value = "id") String activityId) {
+        try {
+            Integer updated = assessmentService.reindexNeedsGrading(activityId);
+            if (updated == null) {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Activity not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+            HashMap<String, Integer> response = new HashMap<>();
+            response.put("updated", updated);
+            return ResponseEntity.status(HttpStatus.OK).body(response);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/activity/{id}/summary")
+    @Operation(
+            summary = "Get the grade summary of an activity",
+            description = "Counts by status, grade statistics, histogram and component averages of an activity, read from a single document",
+            parameters = {
+                    @Parameter(name = "id", description = "Activity ID", required = true),
+                    @Parameter(name = "rebuild", description = "Recompute the summary from the assessments")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summary found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ActivitySummaryDTO.class)
+            )),
+            @ApiResponse(responseCode = "404", description = "Activity not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Activity not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> getActivitySummary(
+            @PathVariable(value = "id") String activityId,
+            @RequestParam(value = "rebuild", defaultValue = "false") boolean rebuild
+    ) {
+        try {
+            ActivitySummaryDTO summary = assessmentService.getActivitySummary(activityId, rebuild);
+            if (summary == null) {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Activity not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(summary);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/course/{id}/gradebook")
+    @Operation(
+            summary = "Export the gradebook of a course",
+            description = "Streams one row per student and activity of the course with the global and component grades",
+            parameters = {
+                    @Parameter(name = "id", description = "Course ID", required = true),
+                    @Parameter(name = "format", description = "'ndjson' (default) or 'csv'")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Gradebook rows", content = {
+                    @Content(mediaType = "application/x-ndjson"),
+                    @Content(mediaType = "text/csv")
+            }),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Unsupported format: xml (expected 'ndjson' or 'csv')\"}")
+            )),
+            @ApiResponse(responseCode = "404", description = "Course not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Course not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> exportGradebook(
+            @PathVariable(value = "id") String courseId,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        try {
+            MediaType mediaType = switch (format) {
+                case "ndjson" -> MediaType.parseMediaType("application/x-ndjson");
+                case "csv" -> new MediaType("text", "csv", StandardCharsets.UTF_8);
+                default -> throw new IllegalArgumentException("Unsupported format: " + format + " (expected 'ndjson' or 'csv')");
+            };
+            if (!gradebookService.courseExists(courseId)) {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Course not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+            StreamingResponseBody body = out -> gradebookService.exportCourse(courseId, format, out);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .contentType(mediaType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"gradebook-" + courseId + "." + format + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     @PostMapping("/activity/{id}/add-submissions")
     @Operation(
             summary = "Add submissions",
@@ -130,6 +523,11 @@ public class AssessmentController {
                     array = @ArraySchema(schema = @Schema(implementation = AssessmentDTO.class))
             )),
             @ApiResponse(responseCode = "204", description = "No content"),
+            @ApiResponse(responseCode = "206", description = "Some submissions failed to be added", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"message\": \"Some submissions failed to be added\", " +
+                            "\"error\": [\"<studentId>\"], \"assessments\": [\"<assessment>\"]}")
+            )),
             @ApiResponse(responseCode = "404", description = "Activity not found", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(type = "object", example = "{\"error\": \"Activity or course not found\"}")
@@ -145,6 +543,22 @@ public class AssessmentController {
     ) {
         try {
             List<AssessmentDTO> assessmentsAdded = assessmentService.addSubmissions(activityId, assessments);
+            if (assessmentsAdded != null) {
+                Set<String> addedIds = new HashSet<>();
+                assessmentsAdded.forEach(assessment -> addedIds.add(assessment.getId()));
+                List<String> failedSubmissions = assessments.stream()
+                        .map(AssessmentDTO::getId)
+                        .filter(id -> !addedIds.contains(id))
+                        .distinct()
+                        .toList();
+                if (!failedSubmissions.isEmpty()) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "Some submissions failed to be added");
+                    response.put("error", failedSubmissions);
+                    response.put("assessments", assessmentsAdded);
+                    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).body(response);
+                }
+            }
             return getResponseEntityList(assessmentsAdded);
         } catch (IllegalArgumentException e) {
             HashMap<String, String> errorResponse = new HashMap<>();
@@ -157,13 +571,75 @@ public class AssessmentController {
         }
     }
 
+    @PostMapping(value = "/activity/{activityId}/student/{studentId}/transcribe", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Add a submission from images",
+            description = "Transcribe photos or a scanned PDF of a handwritten submission, save the text as the student's submission and optionally start grading it",
+            parameters = {
+                    @Parameter(name = "activityId", description = "Activity ID", required = true),
+                    @Parameter(name = "studentId", description = "Student ID", required = true),
+                    @Parameter(name = "files", description = "Images or PDFs of the submission, in page order", required = true),
+                    @Parameter(name = "fileType", description = "File type saved with the submission"),
+                    @Parameter(name = "overwrite", description = "Replace a submission that is already graded, removing its grades"),
+                    @Parameter(name = "grade", description = "Start a grading job for the submission once it is saved"),
+                    @Parameter(name = "bypassCache", description = "Regrade even if an identical prompt was graded before")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Submission saved", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = TranscribedSubmissionDTO.class)
+            )),
+            @ApiResponse(responseCode = "400", description = "Bad request, or the submission is already graded and overwrite is not set", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Bad request\"}")
+            )),
+            @ApiResponse(responseCode = "404", description = "Activity not found", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Activity not found\"}")
+            )),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{\"error\": \"Internal server error\"}")
+            ))
+    })
+    public ResponseEntity<?> transcribeSubmission(
+            @PathVariable(value = "activityId") String activityId,
+            @PathVariable(value = "studentId") String studentId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "fileType", defaultValue = "text") String fileType,
+            @RequestParam(value = "overwrite", defaultValue = "false") boolean overwrite,
+            @RequestParam(value = "grade", defaultValue = "false") boolean grade,
+            @RequestParam(value = "bypassCache", defaultValue = "false") boolean bypassCache
+    ) {
+        try {
+            TranscribedSubmissionDTO submission = transcriptionService.transcribeSubmission(
+                    activityId, studentId, files, fileType, overwrite, grade, bypassCache);
+            if (submission == null) {
+                HashMap<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Activity not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(submission);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     @PostMapping("/activity/{activityId}/student/{studentId}/re-assessment")
     @Operation(
             summary = "Student re-assessment",
             description = "Student re-assessment",
             parameters = {
                     @Parameter(name = "activityId", description = "Activity ID", required = true),
-                    @Parameter(name = "studentId", description = "Student ID", required = true)
+                    @Parameter(name = "studentId", description = "Student ID", required = true),
+                    @Parameter(name = "bypassCache", description = "Regrade even if an identical prompt was graded before")
             },
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Re-assessment comment",
@@ -195,11 +671,12 @@ public class AssessmentController {
     public ResponseEntity<?> studentReAssessment(
             @PathVariable(value = "activityId") String activityId,
             @PathVariable(value = "studentId") String studentId,
+            @RequestParam(value = "bypassCache", defaultValue = "false") boolean bypassCache,
             @RequestBody String reAssessmentComment
     ) {
 //        return new ResponseEntity(assessmentService.studentReAssessment(activityId, studentId, reAssessmentComment), HttpStatus.OK);
         try {
-            AssessmentDTO assessment = assessmentService.studentReAssessment(activityId, studentId, reAssessmentComment);
+            AssessmentDTO assessment = assessmentService.studentReAssessment(activityId, studentId, reAssessmentComment, bypassCache);
             if (assessment != null) {
                 return ResponseEntity.status(HttpStatus.OK).body(assessment);
             } else {
@@ -219,6 +696,53 @@ public class AssessmentController {
     }
 
 
+    @PostMapping(value = "/activity/{activityId}/student/{studentId}/re-assessment/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Student re-assessment (streaming)",
+            description = "Server-Sent Events stream: 'token' events with the model output as it is generated, then an " +
+                    "'assessment' event with the persisted AssessmentDTO, or an 'error' event",
+            parameters = {
+                    @Parameter(name = "activityId", description = "Activity ID", required = true),
+                    @Parameter(name = "studentId", description = "Student ID", required = true),
+                    @Parameter(name = "bypassCache", description = "Regrade even if an identical prompt was graded before")
+            },
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Re-assessment comment",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = String.class)
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened")
+    })
+    public SseEmitter streamStudentReAssessment(
+            @PathVariable(value = "activityId") String activityId,
+            @PathVariable(value = "studentId") String studentId,
+            @RequestParam(value = "bypassCache", defaultValue = "false") boolean bypassCache,
+            @RequestBody String reAssessmentComment
+    ) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        taskExecutor.execute(() -> {
+            try {
+                AssessmentDTO assessment = assessmentService.studentReAssessment(activityId, studentId, reAssessmentComment, bypassCache,
+                        token -> sendEvent(emitter, "token", Map.of("token", token)));
+                if (assessment != null) {
+                    sendEvent(emitter, "assessment", assessment);
+                } else {
+                    sendEvent(emitter, "error", Map.of("error", "Activity, assessment or course not found"));
+                }
+                emitter.complete();
+            } catch (Exception e) {
+                sendEvent(emitter, "error", Map.of("error", String.valueOf(e.getMessage())));
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
     @GetMapping("/activity/{activityId}/student/{studentId}")
     @Operation(
             summary = "Get assessment by activity and student",
@@ -319,6 +843,14 @@ public class AssessmentController {
         }
     }
 
+    private static void sendEvent(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client closed the stream; the re-assessment is still persisted
+        }
+    }
+
     @NotNull
     private ResponseEntity<?> getResponseEntityList(List<AssessmentDTO> assessments) {
         if (assessments != null && !assessments.isEmpty()) {
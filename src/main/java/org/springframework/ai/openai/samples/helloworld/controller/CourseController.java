@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.ai.openai.samples.helloworld.dto.CourseDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.service.CourseManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,12 +18,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+import static org.springframework.ai.openai.samples.helloworld.dto.PageDTO.NEXT_CURSOR_HEADER;
+
 @RestController
 @RequestMapping("/course")
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = NEXT_CURSOR_HEADER)
 @Tag(name = "Course Management", description = "Endpoints for managing courses")
 public class CourseController {
 
@@ -59,7 +61,15 @@ public class CourseController {
     }
 
     @GetMapping(value = "/list")
-    @Operation(summary = "List all courses", description = "List all courses in the system")
+    @Operation(
+            summary = "List all courses",
+            description = "List all courses in the system",
+            parameters = {
+                    @Parameter(name = "cursor", description = "ID of the last item of the previous page (X-Next-Cursor header)"),
+                    @Parameter(name = "limit", description = "Maximum number of items of the page"),
+                    @Parameter(name = "fields", description = "'full' (default) or 'summary' to return only the fields shown in lists")
+            }
+    )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of courses returned successfully", content = @Content(
                     mediaType = "application/json",
@@ -67,19 +77,26 @@ public class CourseController {
             )),
 
             @ApiResponse(responseCode = "204", description = "No courses found"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{ \"message\": \"Limit must be greater than zero\" }")
+            )),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(type = "object", example = "{ \"message\": \"Internal server error\" }"))
             )
     })
-    public ResponseEntity<?> list() {
+    public ResponseEntity<?> list(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", defaultValue = "full") String fields
+    ) {
         try {
-            List<CourseDTO> courses = courseService.list();
-            if (courses != null && !courses.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.OK).body(courses);
-            } else {
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-            }
+            return getPageResponse(courseService.list(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
             HashMap<String, String> errorResponse = new HashMap<>();
             errorResponse.put("message", e.getMessage());
@@ -92,7 +109,10 @@ public class CourseController {
             summary = "Get courses by teacher",
             description = "Get all courses taught by a teacher",
             parameters = {
-                    @Parameter(name = "id", description = "Teacher ID", required = true)
+                    @Parameter(name = "id", description = "Teacher ID", required = true),
+                    @Parameter(name = "cursor", description = "ID of the last item of the previous page (X-Next-Cursor header)"),
+                    @Parameter(name = "limit", description = "Maximum number of items of the page"),
+                    @Parameter(name = "fields", description = "'full' (default) or 'summary' to return only the fields shown in lists")
             }
     )
     @ApiResponses(value = {
@@ -101,19 +121,27 @@ public class CourseController {
                     array = @ArraySchema(schema = @Schema(implementation = CourseDTO.class))
             )),
             @ApiResponse(responseCode = "204", description = "No courses found"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{ \"message\": \"Limit must be greater than zero\" }")
+            )),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(type = "object", example = "{ \"message\": \"Internal server error\" }")
             ))
     })
-    public ResponseEntity<?> getCoursesByTeacher(@PathVariable(value = "id") String id) {
+    public ResponseEntity<?> getCoursesByTeacher(
+            @PathVariable(value = "id") String id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", defaultValue = "full") String fields
+    ) {
         try {
-            List<CourseDTO> courses = courseService.getCoursesByTeacher(id);
-            if (courses != null && !courses.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.OK).body(courses);
-            } else {
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-            }
+            return getPageResponse(courseService.getCoursesByTeacher(id, cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
             HashMap<String, String> errorResponse = new HashMap<>();
             errorResponse.put("message", e.getMessage());
@@ -296,5 +324,15 @@ public class CourseController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
-}
 
+    private static ResponseEntity<?> getPageResponse(PageDTO<?> page) {
+        if (page.getItems().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -9,6 +9,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.HashMap;
+import java.util.List;
+
 @RestController
 @RequestMapping("/translator")
 public class TranslatorController {
@@ -22,8 +25,33 @@ public class TranslatorController {
     // Params get an image and return a string
     @PostMapping(value = "/imageToText")
     public ResponseEntity imageToText(@RequestParam("file") MultipartFile image) {
-        return new ResponseEntity(translatorService.imageToText(image), HttpStatus.OK);
+        try {
+            return new ResponseEntity(translatorService.imageToText(image), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
     }
 
-
+    // Endpoint to transcribe a batch of images or multi-page PDFs
+    // Returns the text of every page in upload order
+    @PostMapping(value = "/imagesToText", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity imagesToText(@RequestParam("files") List<MultipartFile> files) {
+        try {
+            return new ResponseEntity(translatorService.imagesToText(files), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            HashMap<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
 }
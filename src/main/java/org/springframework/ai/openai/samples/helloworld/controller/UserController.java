@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.ai.openai.samples.helloworld.dto.UserDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.service.UserManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,13 +18,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import static org.springframework.ai.openai.samples.helloworld.dto.PageDTO.NEXT_CURSOR_HEADER;
+
 @RestController
 @RequestMapping("/user")
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = NEXT_CURSOR_HEADER)
 @Tag(name = "User Management", description = "Endpoints for managing users")
 public class UserController {
 
@@ -74,7 +76,12 @@ public class UserController {
     @GetMapping(value = "/list")
     @Operation(
             summary = "Get all users",
-            description = "Retrieves a list of all users in the system."
+            description = "Retrieves a list of all users in the system.",
+            parameters = {
+                    @Parameter(name = "cursor", description = "ID of the last item of the previous page (X-Next-Cursor header)"),
+                    @Parameter(name = "limit", description = "Maximum number of items of the page"),
+                    @Parameter(name = "fields", description = "'full' (default) or 'summary' to return only the fields shown in lists")
+            }
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Users retrieved successfully",
@@ -85,20 +92,27 @@ public class UserController {
                             )
                     )),
             @ApiResponse(responseCode = "204", description = "No users found"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination parameters", content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = "object", example = "{ \"message\": \"Limit must be greater than zero\" }")
+            )),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(type = "object", example = "{ \"message\": \"An unexpected error occurred: Database connection failed\" }")
                     ))
     })
-    public ResponseEntity<?> listUsers() {
+    public ResponseEntity<?> listUsers(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", defaultValue = "full") String fields
+    ) {
         try {
-            List<UserDTO> users = userService.list();
-            if (users != null && !users.isEmpty()) {
-                return ResponseEntity.ok(users); // Retorna 200 OK con la lista de usuarios
-            } else {
-                return ResponseEntity.status(HttpStatus.NO_CONTENT).build(); // Retorna 204 si no hay usuarios
-            }
+            return getPageResponse(userService.list(cursor, limit, fields));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("message", "An unexpected error occurred: " + e.getMessage());
@@ -242,4 +256,15 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse); // 404 si no existe
         }
     }
+
+    private static ResponseEntity<?> getPageResponse(PageDTO<?> page) {
+        if (page.getItems().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
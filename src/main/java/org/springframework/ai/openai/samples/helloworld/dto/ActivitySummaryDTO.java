@@ -0,0 +1,44 @@
+package org.springframework.ai.openai.samples.helloworld.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@Schema(name = "ActivitySummaryDTO", description = "Grade statistics of an activity, kept up to date as assessments are written")
+public class ActivitySummaryDTO {
+    @Schema(description = "Unique identifier of the activity", example = "123456")
+    private String activityId;
+
+    @Schema(description = "Number of assessments of the activity", example = "40")
+    private int total;
+
+    @Schema(description = "Number of assessments by status", example = "{\"pending\": 12, \"reviewed\": 28}")
+    private Map<String, Integer> countsByStatus;
+
+    @Schema(description = "Number of assessments with a global grade", example = "28")
+    private int gradedCount;
+
+    @Schema(description = "Average global grade", example = "7.4")
+    private Double averageGrade;
+
+    @Schema(description = "Standard deviation of the global grades", example = "1.6")
+    private Double standardDeviation;
+
+    @Schema(description = "Lower bound of the lowest histogram range with grades", example = "3")
+    private Double minGrade;
+
+    @Schema(description = "Upper bound of the highest histogram range with grades", example = "10")
+    private Double maxGrade;
+
+    @Schema(description = "Number of global grades per range", example = "{\"7-8\": 10, \"8-9\": 9}")
+    private Map<String, Integer> histogram;
+
+    @Schema(description = "Average grade of each rubric component", example = "{\"Diseño del algoritmo\": 2.7}")
+    private Map<String, Double> componentAverages;
+
+    @Schema(description = "Date of the last update", example = "2024-10-24T00:00:00.000Z")
+    private Date updatedAt;
+}
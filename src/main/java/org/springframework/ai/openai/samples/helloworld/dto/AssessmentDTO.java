@@ -24,6 +24,10 @@ public class AssessmentDTO {
     @Schema(description = "Feedback from the teacher", example = "Feedback from teacher")
     String feedback;
 
+    @Schema(description = "Whether the submission still has to be graded by the AI, maintained on every write",
+            example = "true", accessMode = Schema.AccessMode.READ_ONLY)
+    Boolean needsGrading;
+
     @Schema(description = "AI-generated assessment details")
     private AIAssessment aiAssessment;
 
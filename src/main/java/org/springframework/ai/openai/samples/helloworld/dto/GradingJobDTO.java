@@ -0,0 +1,41 @@
+package org.springframework.ai.openai.samples.helloworld.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+@Schema(name = "GradingJobDTO", description = "Progress of an asynchronous grading run for an activity")
+public class GradingJobDTO {
+    @Schema(description = "Unique identifier of the grading job", example = "3f0c2a4e-8d1b-4c55-9a57-2f4f8c1d2b6e")
+    private String id;
+
+    @Schema(description = "Unique identifier of the graded activity", example = "123456")
+    private String activityId;
+
+    @Schema(description = "Status of the job", example = "running",
+            allowableValues = {"queued", "running", "completed", "failed"})
+    private String status;
+
+    @Schema(description = "Number of submissions to grade, known once the job starts", example = "40")
+    private Integer total;
+
+    @Schema(description = "Number of submissions graded successfully", example = "27")
+    private int graded;
+
+    @Schema(description = "Number of submissions still waiting to be graded", example = "12")
+    private int pending;
+
+    @Schema(description = "Number of submissions whose grading failed", example = "1")
+    private int failed;
+
+    @Schema(description = "Error message when the job failed", example = "Activity or course not found")
+    private String error;
+
+    @Schema(description = "Date the job was submitted", example = "2024-10-24T00:00:00.000Z")
+    private Date createdAt;
+
+    @Schema(description = "Date the job finished", example = "2024-10-24T00:05:00.000Z")
+    private Date finishedAt;
+}
@@ -0,0 +1,26 @@
+package org.springframework.ai.openai.samples.helloworld.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+@Schema(name = "GradingRunStudentDTO", description = "State of one student's submission within a grading job")
+public class GradingRunStudentDTO {
+    @Schema(description = "Unique identifier of the student", example = "123456")
+    private String studentId;
+
+    @Schema(description = "Grading state of the submission", example = "failed",
+            allowableValues = {"queued", "inFlight", "done", "failed"})
+    private String state;
+
+    @Schema(description = "Number of times grading was started for the submission", example = "2")
+    private int attempts;
+
+    @Schema(description = "Reason of the last failure", example = "[429] Rate limit reached for gpt-4o")
+    private String error;
+
+    @Schema(description = "Date of the last state change", example = "2024-10-24T00:00:00.000Z")
+    private Date updatedAt;
+}
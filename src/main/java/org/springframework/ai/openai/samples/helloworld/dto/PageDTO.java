@@ -0,0 +1,18 @@
+package org.springframework.ai.openai.samples.helloworld.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(name = "PageDTO", description = "One page of a list; the next cursor is returned in the X-Next-Cursor header")
+public class PageDTO<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Schema(description = "Items of the page")
+    private List<T> items;
+
+    @Schema(description = "Document ID to pass as cursor to get the next page, null on the last page", example = "123456")
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package org.springframework.ai.openai.samples.helloworld.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(name = "PageTextDTO", description = "Text transcribed from one page of a batch of images or PDFs")
+public class PageTextDTO {
+    @Schema(description = "Position of the page in the batch, starting at 1", example = "3")
+    private int index;
+
+    @Schema(description = "Name of the uploaded file the page comes from", example = "homework.pdf")
+    private String fileName;
+
+    @Schema(description = "Page number within its file, starting at 1", example = "2")
+    private int page;
+
+    @Schema(description = "Text of the page, missing if it could not be transcribed", example = "1. The mitochondria is...")
+    private String text;
+
+    @Schema(description = "Reason the page could not be transcribed", example = "[429] Rate limit reached for gpt-4o")
+    private String error;
+}
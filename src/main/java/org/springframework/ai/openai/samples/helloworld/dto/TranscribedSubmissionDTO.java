@@ -0,0 +1,19 @@
+package org.springframework.ai.openai.samples.helloworld.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(name = "TranscribedSubmissionDTO", description = "Submission written from the transcription of uploaded pages")
+public class TranscribedSubmissionDTO {
+    @Schema(description = "Saved submission, with the transcribed pages as its text")
+    private AssessmentDTO assessment;
+
+    @Schema(description = "Text of every uploaded page, in upload order")
+    private List<PageTextDTO> pages;
+
+    @Schema(description = "Grading job of the submission, missing if grading was not requested")
+    private GradingJobDTO job;
+}
@@ -0,0 +1,40 @@
+package org.springframework.ai.openai.samples.helloworld.firebase;
+
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connects to a local Firestore emulator instead of the Firebase project, so the service can run and be
+ * load-tested offline without service account credentials. Collections and subcollections behave as in Firestore.
+ */
+@Component
+@ConditionalOnProperty(name = "firestore.mode", havingValue = "emulator")
+public class EmulatorFirestoreProvider implements FirestoreProvider {
+    private final Firestore firestore;
+
+    public EmulatorFirestoreProvider(
+            @Value("${firestore.emulator.host:localhost:8081}") String host,
+            @Value("${firestore.emulator.project-id:actividades-ia-docentes}") String projectId
+    ) {
+        // With an emulator host the client uses plaintext and fake credentials
+        this.firestore = FirestoreOptions.newBuilder()
+                .setProjectId(projectId)
+                .setEmulatorHost(host)
+                .build()
+                .getService();
+    }
+
+    @Override
+    public Firestore getFirestore() {
+        return firestore;
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        firestore.close();
+    }
+}
@@ -0,0 +1,44 @@
+package org.springframework.ai.openai.samples.helloworld.firebase;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.Firestore;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+
+@Component
+@ConditionalOnProperty(name = "firestore.mode", havingValue = "firebase", matchIfMissing = true)
+public class FirebaseFirestoreProvider implements FirestoreProvider {
+
+    @PostConstruct
+    private void initFirestore() throws IOException {
+        // Initialize Firebase
+        // FirebaseApp.initializeApp(FirebaseOptions.fromResource("/firebase.json"));
+        /* FileInputStream serviceAccount =
+                new FileInputStream("path/to/serviceAccountKey.json");*/
+
+        InputStream serviceAccount = getClass().getClassLoader().getResourceAsStream("serviceAccountKeyFirebase.json");
+
+        assert serviceAccount != null;
+        // FirebaseOptions options = new FirebaseOptions.Builder().setCredentials(GoogleCredentials.fromStream(serviceAccount)).build();
+        FirebaseOptions options = new FirebaseOptions.Builder()
+                .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                .setDatabaseUrl("https://actividades-ia-docentes.firebaseio.com")
+                .build();
+
+        if (FirebaseApp.getApps().isEmpty()) {
+            FirebaseApp.initializeApp(options);
+        }
+    }
+
+    @Override
+    public Firestore getFirestore() {
+        return FirestoreClient.getFirestore();
+    }
+}
@@ -0,0 +1,11 @@
+package org.springframework.ai.openai.samples.helloworld.firebase;
+
+import com.google.cloud.firestore.Firestore;
+
+/**
+ * Source of the Firestore client used by {@link FirebaseInit}. The implementation is selected with
+ * {@code firestore.mode}: {@code firebase} (default) or {@code emulator}.
+ */
+public interface FirestoreProvider {
+    Firestore getFirestore();
+}
@@ -0,0 +1,96 @@
+package org.springframework.ai.openai.samples.helloworld.loadtest;
+
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for the OpenAI chat client under the {@code loadtest} profile. It answers grading prompts with a
+ * well-formed grading JSON and any other prompt with plain text, after a configurable latency, so throughput
+ * can be measured without calling gpt-4o.
+ */
+@Component
+@Primary
+@Profile("loadtest")
+public class LoadTestChatClient implements ChatClient, StreamingChatClient {
+    private static final String[] COMPONENTS = {"Comprensión del problema", "Diseño del algoritmo", "Uso de estructuras de control"};
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final int streamChunks;
+
+    public LoadTestChatClient(
+            @Value("${loadtest.chat.latency-ms:800}") long latencyMillis,
+            @Value("${loadtest.chat.jitter-ms:400}") long jitterMillis,
+            @Value("${loadtest.chat.stream-chunks:20}") int streamChunks
+    ) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.streamChunks = Math.max(streamChunks, 1);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        try {
+            Thread.sleep(nextLatency());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while simulating the model latency", e);
+        }
+        return new ChatResponse(List.of(new Generation(answer(prompt))));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        List<String> chunks = split(answer(prompt));
+        Duration interval = Duration.ofMillis(nextLatency() / chunks.size());
+        return Flux.fromIterable(chunks)
+                .delayElements(interval)
+                .map(chunk -> new ChatResponse(List.of(new Generation(chunk))));
+    }
+
+    private long nextLatency() {
+        return latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+    }
+
+    private static String answer(Prompt prompt) {
+        if (!prompt.getContents().contains("componentsGrades")) {
+            return "Respuesta simulada para pruebas de carga.";
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double maxGrade = 10.0 / COMPONENTS.length;
+        double globalGrade = 0;
+        StringBuilder components = new StringBuilder();
+        for (String component : COMPONENTS) {
+            double grade = Math.round(random.nextDouble(maxGrade) * 100) / 100.0;
+            globalGrade += grade;
+            if (!components.isEmpty()) components.append(',');
+            components.append(String.format(Locale.ROOT,
+                    "\"%s\":{\"properties\":{\"content\":\"Retroalimentación simulada del componente.\",\"grade\":%.2f,\"maxGrade\":%.2f}}",
+                    component, grade, maxGrade));
+        }
+        return String.format(Locale.ROOT, "{\"properties\":{\"componentsGrades\":{%s},\"globalGrade\":%.2f}}", components, globalGrade);
+    }
+
+    private List<String> split(String content) {
+        int size = Math.max(content.length() / streamChunks, 1);
+        List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < content.length(); start += size) {
+            chunks.add(content.substring(start, Math.min(start + size, content.length())));
+        }
+        return chunks;
+    }
+}
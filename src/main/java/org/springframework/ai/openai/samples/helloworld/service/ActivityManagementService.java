@@ -1,16 +1,15 @@
 package org.springframework.ai.openai.samples.helloworld.service;
 
 import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
-
-import java.util.List;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 
 public interface ActivityManagementService {
 
-    List<ActivityDTO> list();
+    PageDTO<ActivityDTO> list(String cursor, Integer limit, String fields);
 
-    List<ActivityDTO> getActivitiesByTeacher(String teacherId);
+    PageDTO<ActivityDTO> getActivitiesByTeacher(String teacherId, String cursor, Integer limit, String fields);
 
-    List<ActivityDTO> getActivitiesByCourse(String courseId);
+    PageDTO<ActivityDTO> getActivitiesByCourse(String courseId, String cursor, Integer limit, String fields);
 
     ActivityDTO getActivity(String id);
 
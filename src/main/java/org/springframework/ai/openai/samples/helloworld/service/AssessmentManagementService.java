@@ -1,19 +1,48 @@
 package org.springframework.ai.openai.samples.helloworld.service;
 
+import org.springframework.ai.openai.samples.helloworld.dto.ActivitySummaryDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AssessmentManagementService {
     List<AssessmentDTO> generateAssessmentForActivity(String activityId);
 
+    List<AssessmentDTO> generateAssessmentForActivity(String activityId, boolean bypassCache, GradingListener listener);
+
+    List<AssessmentDTO> generateAssessmentForStudents(String activityId, Collection<String> studentIds, boolean bypassCache,
+                                                      GradingListener listener);
+
     List<AssessmentDTO> getAssessmentByActivity(String activityId);
 
+    List<AssessmentDTO> getAssessmentByActivity(String activityId, String status);
+
+    PageDTO<AssessmentDTO> getAssessmentByActivity(String activityId, String cursor, Integer limit, String fields);
+
     List<AssessmentDTO> addSubmissions(String activityId, List<AssessmentDTO> assessments);
 
+    /**
+     * Writes only the submission and file type of the student's assessment, keeping its other fields. An assessment
+     * that already has grades is refused unless {@code overwrite} is set, which also removes those grades so the new
+     * submission can be graded. Returns null if the activity does not exist.
+     */
+    AssessmentDTO saveSubmission(String activityId, String studentId, String submission, String fileType, boolean overwrite);
+
     AssessmentDTO studentReAssessment(String activityId, String studentId, String reAssessmentComment);
 
+    AssessmentDTO studentReAssessment(String activityId, String studentId, String reAssessmentComment, boolean bypassCache);
+
+    AssessmentDTO studentReAssessment(String activityId, String studentId, String reAssessmentComment, boolean bypassCache,
+                                      Consumer<String> tokenListener);
+
     AssessmentDTO getAssessmentByActivityAndStudent(String activityId, String studentId);
 
     AssessmentDTO updateAssessment(String activityId, String studentId, AssessmentDTO assessment);
+
+    ActivitySummaryDTO getActivitySummary(String activityId, boolean rebuild);
+
+    Integer reindexNeedsGrading(String activityId);
 }
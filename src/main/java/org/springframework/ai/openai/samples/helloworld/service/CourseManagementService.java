@@ -1,14 +1,13 @@
 package org.springframework.ai.openai.samples.helloworld.service;
 
 import org.springframework.ai.openai.samples.helloworld.dto.CourseDTO;
-
-import java.util.List;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 
 public interface CourseManagementService {
 
-    List<CourseDTO> list();
+    PageDTO<CourseDTO> list(String cursor, Integer limit, String fields);
 
-    List<CourseDTO> getCoursesByTeacher(String teacherId);
+    PageDTO<CourseDTO> getCoursesByTeacher(String teacherId, String cursor, Integer limit, String fields);
 
     CourseDTO getCourse(String id);
 
@@ -0,0 +1,13 @@
+package org.springframework.ai.openai.samples.helloworld.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface GradebookService {
+    boolean courseExists(String courseId);
+
+    /**
+     * Writes one row per student and activity of the course, in "ndjson" or "csv" format.
+     */
+    void exportCourse(String courseId, String format, OutputStream out) throws IOException;
+}
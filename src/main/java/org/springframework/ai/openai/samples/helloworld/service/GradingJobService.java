@@ -0,0 +1,21 @@
+package org.springframework.ai.openai.samples.helloworld.service;
+
+import org.springframework.ai.openai.samples.helloworld.dto.GradingJobDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingRunStudentDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+public interface GradingJobService {
+    GradingJobDTO submit(String activityId, boolean bypassCache);
+
+    GradingJobDTO submit(String activityId, List<String> studentIds, boolean bypassCache);
+
+    GradingJobDTO resume(String jobId, boolean bypassCache);
+
+    GradingJobDTO getJob(String jobId);
+
+    List<GradingRunStudentDTO> getJobStudents(String jobId);
+
+    SseEmitter subscribe(String jobId);
+}
@@ -0,0 +1,22 @@
+package org.springframework.ai.openai.samples.helloworld.service;
+
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+
+import java.util.List;
+
+public interface GradingListener {
+    GradingListener NONE = new GradingListener() {
+    };
+
+    default void onStart(List<String> pendingStudentIds) {
+    }
+
+    default void onGrading(String studentId) {
+    }
+
+    default void onGraded(AssessmentDTO assessment) {
+    }
+
+    default void onFailed(String studentId, Exception e) {
+    }
+}
@@ -0,0 +1,16 @@
+package org.springframework.ai.openai.samples.helloworld.service;
+
+import org.springframework.ai.openai.samples.helloworld.dto.TranscribedSubmissionDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface SubmissionTranscriptionService {
+    /**
+     * Transcribes the uploaded images or PDFs and saves the text as the student's submission, optionally queueing
+     * its grading. An already graded submission is only replaced with {@code overwrite}. Returns null if the
+     * activity does not exist.
+     */
+    TranscribedSubmissionDTO transcribeSubmission(String activityId, String studentId, List<MultipartFile> files,
+                                                  String fileType, boolean overwrite, boolean grade, boolean bypassCache);
+}
@@ -1,7 +1,12 @@
 package org.springframework.ai.openai.samples.helloworld.service;
 
+import org.springframework.ai.openai.samples.helloworld.dto.PageTextDTO;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 public interface TranslatorManagementService {
     String imageToText(MultipartFile image);
+
+    List<PageTextDTO> imagesToText(List<MultipartFile> files);
 }
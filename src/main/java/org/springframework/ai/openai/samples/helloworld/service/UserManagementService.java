@@ -1,11 +1,10 @@
 package org.springframework.ai.openai.samples.helloworld.service;
 
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.UserDTO;
 
-import java.util.List;
-
 public interface UserManagementService {
-    List<UserDTO> list();
+    PageDTO<UserDTO> list(String cursor, Integer limit, String fields);
 
     UserDTO getUser(String id);
 
@@ -1,60 +1,88 @@
 package org.springframework.ai.openai.samples.helloworld.service.implement;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.checkerframework.checker.units.qual.A;
 import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
 import org.springframework.ai.openai.samples.helloworld.service.ActivityManagementService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class ActivityManagementServiceImplement implements ActivityManagementService {
+    // Fields shown by list views; the rubric, strategies and solution are only read with the full activity
+    private static final String[] SUMMARY_FIELDS = {
+            "id", "name", "createdAt", "teacherId", "courseId", "typeActivity", "learningComponent",
+            "academicLevel", "unitTheme", "lastUpdate"
+    };
+
     private final FirebaseInit firebaseInit;
+    private final FirestorePager pager;
+    private final FirestoreMetrics firestoreMetrics;
+    // Snapshots are immutable, so every caller gets its own ActivityDTO and cannot change the cached activity
+    private final Cache<String, DocumentSnapshot> activityCache;
 
-    public ActivityManagementServiceImplement(FirebaseInit firebaseInit) {
+    public ActivityManagementServiceImplement(
+            FirebaseInit firebaseInit,
+            FirestorePager pager,
+            FirestoreMetrics firestoreMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${cache.context.maximum-size:500}") long maximumSize,
+            @Value("${cache.context.ttl-minutes:10}") long ttlMinutes
+    ) {
         this.firebaseInit = firebaseInit;
+        this.pager = pager;
+        this.firestoreMetrics = firestoreMetrics;
+        this.activityCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, activityCache, "activities");
     }
 
     @Override
-    public List<ActivityDTO> list() {
-        List<ActivityDTO> response = new ArrayList<>();
+    public PageDTO<ActivityDTO> list(String cursor, Integer limit, String fields) {
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection().get();
-            for (DocumentSnapshot doc : querySnapshotApiFuture.get().getDocuments()) {
-                ActivityDTO activity = doc.toObject(ActivityDTO.class);
-                assert activity != null;
-                activity.setId(doc.getId());
-                response.add(activity);
-            }
-            return response;
+            return pager.fetch(getCollection(), cursor, limit,
+                    FirestorePager.projection(fields, SUMMARY_FIELDS), ActivityManagementServiceImplement::toActivity);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch activities", e);
         }
     }
 
     @Override
-    public List<ActivityDTO> getActivitiesByTeacher(String teacherId) {
-        List<ActivityDTO> response = new ArrayList<>();
+    public PageDTO<ActivityDTO> getActivitiesByTeacher(String teacherId, String cursor, Integer limit, String fields) {
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection().whereEqualTo("teacherId", teacherId).get();
-            return getActivityDTOS(response, querySnapshotApiFuture);
+            return pager.fetch(getCollection().whereEqualTo("teacherId", teacherId), cursor, limit,
+                    FirestorePager.projection(fields, SUMMARY_FIELDS), ActivityManagementServiceImplement::toActivity);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch activities for teacher ID: " + teacherId, e);
         }
     }
 
     @Override
-    public List<ActivityDTO> getActivitiesByCourse(String courseId) {
-        List<ActivityDTO> response = new ArrayList<>();
+    public PageDTO<ActivityDTO> getActivitiesByCourse(String courseId, String cursor, Integer limit, String fields) {
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection().whereEqualTo("courseId", courseId).get();
-            return getActivityDTOS(response, querySnapshotApiFuture);
+            return pager.fetch(getCollection().whereEqualTo("courseId", courseId), cursor, limit,
+                    FirestorePager.projection(fields, SUMMARY_FIELDS), ActivityManagementServiceImplement::toActivity);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch activities for course ID: " + courseId, e);
         }
@@ -65,19 +93,16 @@ public class ActivityManagementServiceImplement implements ActivityManagementSer
         if (id == null || id.isEmpty()) {
             throw new IllegalArgumentException("ID cannot be null or empty");
         }
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
-        try {
-            DocumentSnapshot document = documentSnapshotApiFuture.get();
-            if (document.exists()) {
-                ActivityDTO activity = document.toObject(ActivityDTO.class);
-                assert activity != null;
-                activity.setId(document.getId());
-                return activity;
+        // Loading through the cache lets an invalidation wait for a read in progress instead of racing it
+        DocumentSnapshot document = activityCache.get(id, key -> {
+            try {
+                DocumentSnapshot snapshot = firestoreMetrics.time("activities.get", getCollection().document(key).get()).get();
+                return snapshot.exists() ? snapshot : null;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch activity for ID: " + key, e);
             }
-            return null;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch activity for ID: " + id, e);
-        }
+        });
+        return document == null ? null : toActivity(document);
     }
 
     @Override
@@ -86,11 +111,11 @@ public class ActivityManagementServiceImplement implements ActivityManagementSer
             throw new IllegalArgumentException("Teacher ID cannot be null or empty");
         }
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection()
+            ApiFuture<QuerySnapshot> querySnapshotApiFuture = firestoreMetrics.time("activities.query", getCollection()
                     .whereEqualTo("teacherId", teacherId)
                     .orderBy("lastUpdate", Query.Direction.DESCENDING)
                     .limit(1)
-                    .get();
+                    .get());
             List<QueryDocumentSnapshot> documents = querySnapshotApiFuture.get().getDocuments();
             if (documents.isEmpty()) {
                 return null;
@@ -124,11 +149,11 @@ public class ActivityManagementServiceImplement implements ActivityManagementSer
             throw new IllegalArgumentException("Activity or Activity ID cannot be null");
         }
         try {
-            DocumentSnapshot document = getCollection().document(activity.getId()).get().get();
+            DocumentSnapshot document = firestoreMetrics.time("activities.get", getCollection().document(activity.getId()).get()).get();
             if (document.exists()) {
                 throw new IllegalArgumentException("Activity already exists");
             }
-            WriteResult writeResult = getCollection().document(activity.getId()).create(getDocData(activity)).get();
+            WriteResult writeResult = firestoreMetrics.time("activities.create", getCollection().document(activity.getId()).create(getDocData(activity))).get();
             if (writeResult == null) {
                 throw new RuntimeException("Failed to add the activity");
             }
@@ -150,11 +175,12 @@ public class ActivityManagementServiceImplement implements ActivityManagementSer
         if (!activity.getId().equals(id)) {
             throw new IllegalArgumentException("Activity ID mismatch with the ID provided in the path");
         }
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("activities.get", getCollection().document(id).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (document.exists()) {
-                WriteResult writeResult = getCollection().document(id).set(getDocData(activity)).get();
+                WriteResult writeResult = firestoreMetrics.time("activities.set", getCollection().document(id).set(getDocData(activity))).get();
+                invalidate(id);
                 if (writeResult == null) {
                     throw new RuntimeException("Failed to update the activity");
                 }
@@ -173,14 +199,15 @@ public class ActivityManagementServiceImplement implements ActivityManagementSer
         if (id == null || id.isEmpty()) {
             throw new IllegalArgumentException("ID cannot be null or empty");
         }
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("activities.get", getCollection().document(id).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (document.exists()) {
                 ActivityDTO activity = document.toObject(ActivityDTO.class);
                 assert activity != null;
                 activity.setId(document.getId());
-                WriteResult writeResult = getCollection().document(id).delete().get();
+                WriteResult writeResult = firestoreMetrics.time("activities.delete", getCollection().document(id).delete()).get();
+                invalidate(id);
                 if (writeResult == null) {
                     throw new RuntimeException("Failed to delete the activity");
                 }
@@ -201,19 +228,18 @@ public class ActivityManagementServiceImplement implements ActivityManagementSer
         }*/
     }
 
-    private List<ActivityDTO> getActivityDTOS(List<ActivityDTO> response, ApiFuture<QuerySnapshot> querySnapshotApiFuture) {
-        ActivityDTO activity;
-        try {
-            for (DocumentSnapshot doc : querySnapshotApiFuture.get().getDocuments()) {
-                activity = doc.toObject(ActivityDTO.class);
-                assert activity != null;
-                activity.setId(doc.getId());
-                response.add(activity);
-            }
-            return response;
-        } catch (Exception e) {
-            return null;
-        }
+    /**
+     * Removes the cached activity once a write has completed. Unlike invalidate, compute waits for a load of the
+     * same ID that is still running, so a snapshot read before the write is not left behind in the cache.
+     */
+    private void invalidate(String id) {
+        activityCache.asMap().compute(id, (key, stale) -> null);
+    }
+
+    private static ActivityDTO toActivity(DocumentSnapshot doc) {
+        ActivityDTO activity = doc.toObject(ActivityDTO.class);
+        if (activity != null) activity.setId(doc.getId());
+        return activity;
     }
 
     private CollectionReference getCollection() {
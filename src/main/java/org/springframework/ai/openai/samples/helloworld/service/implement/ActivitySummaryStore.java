@@ -0,0 +1,317 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.FirestoreException;
+import io.grpc.Status;
+import org.springframework.ai.openai.samples.helloworld.dto.ActivitySummaryDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
+import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Maintains {@code activitySummaries/{activityId}}: running aggregates of the grades of an activity (counts, sum and
+ * sum of squares, histogram buckets and per-component totals). Every write of an assessment applies the difference
+ * between the student's previous and new grade with {@link FieldValue#increment}, so an update costs one small write
+ * whatever the size of the class, and the statistics never need the assessments to be read again.
+ */
+@Component
+public class ActivitySummaryStore {
+    static final String[] GRADE_FIELDS = {
+            "status", "aiAssessment.globalGrade", "aiAssessment.componentsGrades",
+            "reAssessment.globalGrade", "reAssessment.componentsGrades"
+    };
+
+    private final FirebaseInit firebase;
+    private final FirestorePager pager;
+    private final FirestoreMetrics firestoreMetrics;
+    private final double bucketWidth;
+
+    /**
+     * What one assessment contributes to the summary: the re-assessment grade when there is one, else the AI grade.
+     */
+    public record Grade(String status, Double globalGrade, Map<String, Double> componentsGrades) {
+        public static Grade of(AssessmentDTO assessment) {
+            if (assessment == null) return null;
+            Double globalGrade = null;
+            Map<String, AssessmentDTO.ComponentGrade> components = null;
+            if (assessment.getReAssessment() != null && assessment.getReAssessment().getGlobalGrade() != null) {
+                globalGrade = assessment.getReAssessment().getGlobalGrade();
+                components = assessment.getReAssessment().getComponentsGrades();
+            } else if (assessment.getAiAssessment() != null) {
+                globalGrade = assessment.getAiAssessment().getGlobalGrade();
+                components = assessment.getAiAssessment().getComponentsGrades();
+            }
+            Map<String, Double> componentsGrades = new HashMap<>();
+            if (components != null) {
+                components.forEach((name, grade) -> {
+                    if (grade != null && grade.getGrade() != null) componentsGrades.put(name, grade.getGrade());
+                });
+            }
+            return new Grade(assessment.getStatus() == null ? "unknown" : assessment.getStatus(), globalGrade, componentsGrades);
+        }
+    }
+
+    public ActivitySummaryStore(
+            FirebaseInit firebase,
+            FirestorePager pager,
+            FirestoreMetrics firestoreMetrics,
+            @Value("${activity-summary.histogram-bucket-width:1}") double bucketWidth
+    ) {
+        this.firebase = firebase;
+        this.pager = pager;
+        this.firestoreMetrics = firestoreMetrics;
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Replaces what one student contributes. {@code previous} is the grade before the write, or null when the
+     * assessment did not exist.
+     */
+    public void record(String activityId, Grade previous, AssessmentDTO current) {
+        Map<String, Grade> previousGrades = new HashMap<>();
+        previousGrades.put(current.getId(), previous);
+        record(activityId, previousGrades, List.of(current));
+    }
+
+    /**
+     * Replaces what the given assessments contribute, in a single update of the summary. {@code previous} holds the
+     * grades before the write by assessment ID; assessments missing from it did not exist. Nothing is written while
+     * the summary does not exist (the next read builds it from the assessments); if the update fails for any other
+     * reason the summary is deleted, so that read rebuilds it instead of serving stale statistics.
+     */
+    public void record(String activityId, Map<String, Grade> previous, Collection<AssessmentDTO> current) {
+        if (current.isEmpty()) return;
+        Aggregates delta = new Aggregates();
+        for (AssessmentDTO assessment : current) {
+            Grade before = previous.get(assessment.getId());
+            if (before != null) delta.add(before, -1);
+            delta.add(Grade.of(assessment), 1);
+            if (before == null) delta.total++;
+        }
+        List<Object> updates = delta.increments();
+        if (updates.isEmpty()) return;
+        updates.add(FieldPath.of("updatedAt"));
+        updates.add(FieldValue.serverTimestamp());
+        DocumentReference ref = getDocumentReference(activityId);
+        try {
+            // Fails without writing when the summary does not exist
+            firestoreMetrics.time("activitySummaries.update", ref.update(
+                    (FieldPath) updates.get(0), updates.get(1), updates.subList(2, updates.size()).toArray())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delete(ref);
+        } catch (Exception e) {
+            if (!isNotFound(e)) delete(ref);
+        }
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND) {
+                return true;
+            }
+            if (cause instanceof FirestoreException firestore && firestore.getStatus() != null
+                    && firestore.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void delete(DocumentReference ref) {
+        try {
+            firestoreMetrics.time("activitySummaries.delete", ref.delete()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // The summary may now be stale; a request with rebuild=true recomputes it
+        }
+    }
+
+    /**
+     * Returns the stored summary, building it from the assessments when it does not exist yet
+     * (activities graded before summaries were kept) or when a rebuild is requested.
+     */
+    public ActivitySummaryDTO get(String activityId, boolean rebuild) throws Exception {
+        DocumentReference ref = getDocumentReference(activityId);
+        if (!rebuild) {
+            DocumentSnapshot snapshot = firestoreMetrics.time("activitySummaries.get", ref.get()).get();
+            // Summaries written before the aggregates were kept embed a map of students instead
+            if (snapshot.exists() && snapshot.contains("gradeSumSquares")) {
+                return toSummary(activityId, snapshot);
+            }
+        }
+        Aggregates aggregates = new Aggregates();
+        String cursor = null;
+        do {
+            PageDTO<AssessmentDTO> page = pager.fetch(
+                    firebase.getFirestore().collection("activities").document(activityId).collection("assessments"),
+                    cursor, Integer.MAX_VALUE, GRADE_FIELDS, doc -> { // Pages of the maximum page size
+                        AssessmentDTO assessment = doc.toObject(AssessmentDTO.class);
+                        if (assessment != null) assessment.setId(doc.getId());
+                        return assessment;
+                    });
+            page.getItems().forEach(assessment -> {
+                aggregates.add(Grade.of(assessment), 1);
+                aggregates.total++;
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        Map<String, Object> docData = aggregates.getDocData(activityId);
+        firestoreMetrics.time("activitySummaries.set", ref.set(docData)).get();
+        return toSummary(activityId, docData);
+    }
+
+    private ActivitySummaryDTO toSummary(String activityId, DocumentSnapshot snapshot) {
+        Map<String, Object> data = new HashMap<>(snapshot.getData());
+        data.put("updatedAt", snapshot.getDate("updatedAt"));
+        return toSummary(activityId, data);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ActivitySummaryDTO toSummary(String activityId, Map<String, Object> data) {
+        long gradedCount = number(data.get("gradedCount")).longValue();
+        double gradeSum = number(data.get("gradeSum")).doubleValue();
+        double gradeSumSquares = number(data.get("gradeSumSquares")).doubleValue();
+
+        // Increments leave zero counts behind once a student moves to another status or range
+        Map<String, Integer> countsByStatus = new TreeMap<>();
+        ((Map<String, Object>) data.getOrDefault("countsByStatus", Map.of())).forEach((status, count) -> {
+            if (number(count).intValue() > 0) countsByStatus.put(status, number(count).intValue());
+        });
+        TreeMap<Double, Integer> buckets = new TreeMap<>();
+        ((Map<String, Object>) data.getOrDefault("histogram", Map.of())).forEach((start, count) -> {
+            if (number(count).intValue() > 0) buckets.put(Double.parseDouble(start), number(count).intValue());
+        });
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        buckets.forEach((start, count) -> histogram.put(format(start) + "-" + format(start + bucketWidth), count));
+        Map<String, Double> componentAverages = new TreeMap<>();
+        ((Map<String, Object>) data.getOrDefault("componentTotals", Map.of())).forEach((name, value) -> {
+            Map<String, Object> totals = (Map<String, Object>) value;
+            long count = number(totals.get("count")).longValue();
+            if (count > 0) componentAverages.put(name, number(totals.get("sum")).doubleValue() / count);
+        });
+
+        ActivitySummaryDTO summary = new ActivitySummaryDTO();
+        summary.setActivityId(activityId);
+        summary.setTotal(number(data.get("total")).intValue());
+        summary.setCountsByStatus(countsByStatus);
+        summary.setGradedCount((int) gradedCount);
+        if (gradedCount > 0) {
+            double average = gradeSum / gradedCount;
+            summary.setAverageGrade(average);
+            summary.setStandardDeviation(Math.sqrt(Math.max(0, gradeSumSquares / gradedCount - average * average)));
+        }
+        if (!buckets.isEmpty()) {
+            summary.setMinGrade(buckets.firstKey());
+            summary.setMaxGrade(buckets.lastKey() + bucketWidth);
+        }
+        summary.setHistogram(histogram);
+        summary.setComponentAverages(componentAverages);
+        summary.setUpdatedAt((Date) data.get("updatedAt"));
+        return summary;
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number number ? number : 0;
+    }
+
+    private double bucketStart(double grade) {
+        return Math.floor(grade / bucketWidth) * bucketWidth;
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private DocumentReference getDocumentReference(String activityId) {
+        return firebase.getFirestore().collection("activitySummaries").document(activityId);
+    }
+
+    /**
+     * Aggregates of a set of grades, or the change to apply when grades are added (sign 1) and removed (sign -1).
+     */
+    private class Aggregates {
+        private long total;
+        private final Map<String, Long> countsByStatus = new TreeMap<>();
+        private long gradedCount;
+        private double gradeSum;
+        private double gradeSumSquares;
+        private final Map<String, Long> histogram = new TreeMap<>(); // Keyed by the start of each range
+        private final Map<String, double[]> componentTotals = new TreeMap<>(); // Sum and count of each component
+
+        void add(Grade grade, int sign) {
+            countsByStatus.merge(grade.status(), (long) sign, Long::sum);
+            Double globalGrade = grade.globalGrade();
+            if (globalGrade != null) {
+                gradedCount += sign;
+                gradeSum += sign * globalGrade;
+                gradeSumSquares += sign * globalGrade * globalGrade;
+                histogram.merge(format(bucketStart(globalGrade)), (long) sign, Long::sum);
+            }
+            grade.componentsGrades().forEach((name, componentGrade) -> {
+                double[] totals = componentTotals.computeIfAbsent(name, key -> new double[2]);
+                totals[0] += sign * componentGrade;
+                totals[1] += sign;
+            });
+        }
+
+        /**
+         * Field paths and increments of the non-zero changes, alternating, as taken by {@link DocumentReference#update}.
+         */
+        List<Object> increments() {
+            List<Object> updates = new ArrayList<>();
+            if (total != 0) addIncrement(updates, FieldPath.of("total"), total);
+            countsByStatus.forEach((status, count) -> {
+                if (count != 0) addIncrement(updates, FieldPath.of("countsByStatus", status), count);
+            });
+            if (gradedCount != 0) addIncrement(updates, FieldPath.of("gradedCount"), gradedCount);
+            if (gradeSum != 0) addIncrement(updates, FieldPath.of("gradeSum"), gradeSum);
+            if (gradeSumSquares != 0) addIncrement(updates, FieldPath.of("gradeSumSquares"), gradeSumSquares);
+            histogram.forEach((start, count) -> {
+                if (count != 0) addIncrement(updates, FieldPath.of("histogram", start), count);
+            });
+            componentTotals.forEach((name, totals) -> {
+                if (totals[0] != 0) addIncrement(updates, FieldPath.of("componentTotals", name, "sum"), totals[0]);
+                if (totals[1] != 0) addIncrement(updates, FieldPath.of("componentTotals", name, "count"), (long) totals[1]);
+            });
+            return updates;
+        }
+
+        private static void addIncrement(List<Object> updates, FieldPath field, long value) {
+            updates.add(field);
+            updates.add(FieldValue.increment(value));
+        }
+
+        private static void addIncrement(List<Object> updates, FieldPath field, double value) {
+            updates.add(field);
+            updates.add(FieldValue.increment(value));
+        }
+
+        Map<String, Object> getDocData(String activityId) {
+            Map<String, Object> docData = new HashMap<>();
+            docData.put("activityId", activityId);
+            docData.put("total", total);
+            docData.put("countsByStatus", new HashMap<>(countsByStatus));
+            docData.put("gradedCount", gradedCount);
+            docData.put("gradeSum", gradeSum);
+            docData.put("gradeSumSquares", gradeSumSquares);
+            docData.put("histogram", new HashMap<>(histogram));
+            Map<String, Object> components = new HashMap<>();
+            componentTotals.forEach((name, totals) -> components.put(name, Map.of("sum", totals[0], "count", (long) totals[1])));
+            docData.put("componentTotals", components);
+            docData.put("updatedAt", new Date());
+            return docData;
+        }
+    }
+}
@@ -1,143 +1,283 @@
 package org.springframework.ai.openai.samples.helloworld.service.implement;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.ai.chat.ChatClient;
 import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.api.OpenAiApi.ChatCompletionRequest.ResponseFormat;
 import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.ActivitySummaryDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.CourseDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.StudentDTO;
 import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
+import org.springframework.ai.openai.samples.helloworld.service.ActivityManagementService;
 import org.springframework.ai.openai.samples.helloworld.service.AssessmentManagementService;
+import org.springframework.ai.openai.samples.helloworld.service.CourseManagementService;
+import org.springframework.ai.openai.samples.helloworld.service.GradingListener;
 import org.springframework.stereotype.Service;
 
-import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.springframework.ai.openai.samples.helloworld.service.implement.GradingSupport.*;
 
 @Service
 public class AssessmentManagementServiceImplement implements AssessmentManagementService {
+    // Fields needed to report grades; the submission and the generated feedback texts are left out
+    private static final String[] SUMMARY_FIELDS = {
+            "id", "status", "aiAssessment.globalGrade", "aiAssessment.componentsGrades",
+            "reAssessment.globalGrade", "reAssessment.componentsGrades"
+    };
+
+    private static final String MODEL = "gpt-4o";
+    private static final Set<String> STATUSES = Set.of("reviewed", "pending", "missing");
+    // Small fields that tell whether a submission was graded, read once per document when an activity is reindexed
+    private static final String[] NEEDS_GRADING_FIELDS = {"status", "needsGrading", "aiAssessment.globalGrade"};
+
     private final FirebaseInit firebase;
     private final ChatClient chatClient;
-    private static final String PROMPT_TEMPLATE = "Eres el docente de la asignatura de: {0}, quién tiene el rol de revisor de tareas. " +
-            "Dentro de la unidad temática: {1}, se plantea la actividad: {2}, que tiene como objetivo llegar a los siguientes resultados de aprendizaje: {3}. " +
-            "El planteamiento de la tarea es el siguiente: {4}. " + "La entrega que ha realizado el estudiante es la siguiente: {5}. " +
-            "Entrégame el resultado del análisis de la respuesta del estudiante, en base a la siguiente rúbrica: {6}, " +
-            "adicionalmente a este análisis incluye una calificación que este dentro del rango especificado dentro de la rúbrica." +
-            "Proporciona un análisis específico para cada componente de la rúbrica. " +
-            "Incluye observaciones claras y completas, con ejemplos específicos para respaldar tu evaluación. " +
-            "Proporciona recomendaciones detalladas, incluso para componentes correctamente realizados, y justifica la calificación asignada dentro del rango de la rúbrica." +
-            "verbosity tiene 3 valores: 'low' ofrecer Breve retroalimentación con observaciones generales; " +
-            "'medium' ofrece Retroalimentación con observaciones y ejemplos clave. " +
-            "'high' ofrece Retroalimentación detallada con observaciones completas y ejemplos específicos. ";
-
-    private static final String JSON_SCHEMA = """
-            { "type": "json_object",
-                "properties": {
-                    "componentsGrades": {
-                        "item component of rubric evaluation": {
-                            "type": "json_object",
-                            "properties": {
-                                "content": {"type": "string", "verbosity": "medium", "feedbackType": "constructive"},
-                                "grade": {"type": "number", "strictnessLevel": "lenient"},
-                                "maxGrade": {"type": "number"}
-                            },
-                            "required": ["content", "grade", "maxGrade"],
-                            "additionalProperties": false
-                        }
-                    },
-                    "globalGrade": {"type": "number"},
-                },
-                "required": ["componentsGrades", "globalGrade"],
-                "strictnessGradesLevel": "moderate"
-                "additionalProperties": false }
-            """;
-    /*
-    "strictnessLevel" = 'lenient' | 'moderate' | 'strict'; // Nivel de exigencia
-    "feedbackType": 'constructive' | 'neutral' | 'detailed'; // Tipo de retroalimentación
-     */
-
-    public AssessmentManagementServiceImplement(FirebaseInit firebase, ChatClient chatClient) {
+    private final StreamingChatClient streamingChatClient;
+    private final GradingEngine gradingEngine;
+    private final FirestoreBulkWriter bulkWriter;
+    private final ActivityManagementService activityService;
+    private final CourseManagementService courseService;
+    private final GradingResponseCache responseCache;
+    private final FirestorePager pager;
+    private final ActivitySummaryStore summaryStore;
+    private final LlmRequestScheduler llmScheduler;
+    private final FirestoreMetrics firestoreMetrics;
+    private final LlmMetrics llmMetrics;
+
+    public AssessmentManagementServiceImplement(FirebaseInit firebase, ChatClient chatClient, StreamingChatClient streamingChatClient,
+                                                GradingEngine gradingEngine, FirestoreBulkWriter bulkWriter,
+                                                ActivityManagementService activityService, CourseManagementService courseService,
+                                                GradingResponseCache responseCache, FirestorePager pager,
+                                                ActivitySummaryStore summaryStore, LlmRequestScheduler llmScheduler,
+                                                FirestoreMetrics firestoreMetrics, LlmMetrics llmMetrics) {
         this.firebase = firebase;
         this.chatClient = chatClient;
+        this.streamingChatClient = streamingChatClient;
+        this.gradingEngine = gradingEngine;
+        this.bulkWriter = bulkWriter;
+        this.activityService = activityService;
+        this.courseService = courseService;
+        this.responseCache = responseCache;
+        this.pager = pager;
+        this.summaryStore = summaryStore;
+        this.llmScheduler = llmScheduler;
+        this.firestoreMetrics = firestoreMetrics;
+        this.llmMetrics = llmMetrics;
     }
 
     @Override
     public List<AssessmentDTO> generateAssessmentForActivity(String activityId) {
+        return generateAssessmentForActivity(activityId, false, GradingListener.NONE);
+    }
+
+    @Override
+    public List<AssessmentDTO> generateAssessmentForActivity(String activityId, boolean bypassCache, GradingListener listener) {
         if (activityId == null || activityId.isBlank()) {
             throw new IllegalArgumentException("Activity ID cannot be null or empty.");
         }
-        List<AssessmentDTO> processedAssessments = new ArrayList<>();
         try {
-            DocumentReference activityRef = getDocumentReferenceActivity(activityId);
-            ActivityDTO activity = activityRef.get().get().toObject(ActivityDTO.class);
+            // Reads are issued as soon as their IDs are known and joined once: the assessments query overlaps the
+            // activity read, the students query overlaps the course read. With activity and course cached the
+            // whole context costs one round trip.
+            // Only submissions still to be graded are downloaded
+            CompletableFuture<Map<String, AssessmentDTO>> assessmentsFuture = queryNeedsGrading(activityId);
+            ActivityDTO activity = activityService.getActivity(activityId);
             if (activity == null) {
                 return null;
             }
             if (activity.getAssessmentRubric() == null || activity.getAssessmentRubric().isBlank()) {
                 throw new IllegalArgumentException("Assessment rubric is required for activity ID: " + activityId);
             }
-            ApiFuture<QuerySnapshot> querySnapshotApiFutureAssessments = getCollectionReferenceAssessments(activityId).get();
-            CourseDTO course = getDocumentReferenceCourse(activity.getCourseId()).get().get().toObject(CourseDTO.class);
+            CompletableFuture<List<StudentDTO>> studentsFuture = FirestoreFutures.toCompletable(firestoreMetrics.time(
+                    "students.query", getDocumentReferenceCourse(activity.getCourseId()).collection("students").get())
+            ).thenApply(snapshot -> snapshot.toObjects(StudentDTO.class));
+            CourseDTO course = courseService.getCourse(activity.getCourseId());
             if (course == null) {
                 return null;
             }
-            List<StudentDTO> students = getDocumentReferenceCourse(activity.getCourseId())
-                    .collection("students").get().get().toObjects(StudentDTO.class);
-
-            List<AssessmentDTO> assessments = querySnapshotApiFutureAssessments.get().getDocuments().stream()
-                    .map(doc -> doc.toObject(AssessmentDTO.class))
-                    .toList();
+            List<StudentDTO> students = studentsFuture.join();
+            Map<String, AssessmentDTO> assessments = assessmentsFuture.join();
 
+            List<AssessmentDTO> pendingAssessments = new ArrayList<>();
             for (StudentDTO studentDTO : students) {
-                AssessmentDTO assessment = assessments.stream()
-                        .filter(a -> a.getId().equals(studentDTO.getId()))
-                        .findFirst()
-                        .orElse(new AssessmentDTO());
-
-                if (assessment.getSubmission() == null ||
-                        (assessment.getAiAssessment() != null && assessment.getAiAssessment().getAiGeneration() != null)
-                ) {
+                AssessmentDTO assessment = assessments.get(studentDTO.getId());
+                if (assessment == null || !needsGrading(assessment)) {
                     continue;
                 }
-                String prompt = getFormat(course, activity, assessment);
-                ChatResponse response = getAssessmentByGPTModel(prompt);
+                assessment.setId(studentDTO.getId());
+                pendingAssessments.add(assessment);
+            }
+            return gradePending(activityId, course, activity, pendingAssessments, bypassCache, listener);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+//            e.printStackTrace();
+            throw new RuntimeException("Failed to generate assessments for activity ID: " + activityId, e);
+        }
+    }
 
-                if (assessment.getAiAssessment() == null) {
-                    assessment.setAiAssessment(new AssessmentDTO.AIAssessment());
+    @Override
+    public List<AssessmentDTO> generateAssessmentForStudents(String activityId, Collection<String> studentIds, boolean bypassCache,
+                                                             GradingListener listener) {
+        if (activityId == null || activityId.isBlank()) {
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        }
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new IllegalArgumentException("Student IDs cannot be null or empty.");
+        }
+        try {
+            // Only the requested assessments are read, in a single batched get that overlaps the activity and course reads
+            CollectionReference assessmentsRef = getCollectionReferenceAssessments(activityId);
+            DocumentReference[] refs = studentIds.stream().map(assessmentsRef::document).toArray(DocumentReference[]::new);
+            CompletableFuture<List<DocumentSnapshot>> assessmentsFuture = FirestoreFutures.toCompletable(
+                    firestoreMetrics.time("assessments.getAll", firebase.getFirestore().getAll(refs)));
+            ActivityDTO activity = activityService.getActivity(activityId);
+            if (activity == null) {
+                return null;
+            }
+            if (activity.getAssessmentRubric() == null || activity.getAssessmentRubric().isBlank()) {
+                throw new IllegalArgumentException("Assessment rubric is required for activity ID: " + activityId);
+            }
+            CourseDTO course = courseService.getCourse(activity.getCourseId());
+            if (course == null) {
+                return null;
+            }
+            List<AssessmentDTO> pendingAssessments = new ArrayList<>();
+            List<AssessmentDTO> alreadyGraded = new ArrayList<>();
+            for (DocumentSnapshot doc : assessmentsFuture.join()) {
+                AssessmentDTO assessment = doc.exists() ? doc.toObject(AssessmentDTO.class) : null;
+                if (assessment == null || assessment.getSubmission() == null) {
+                    listener.onFailed(doc.getId(), new IllegalStateException("Submission not found"));
+                    continue;
+                }
+                assessment.setId(doc.getId());
+                if (assessment.getAiAssessment() != null && assessment.getAiAssessment().getAiGeneration() != null) {
+                    alreadyGraded.add(assessment); // Saved before the previous run stopped
+                } else {
+                    pendingAssessments.add(assessment);
                 }
-                assessment.getAiAssessment().setAiGeneration(response.getResult().getOutput().getContent());
-                assessment.getAiAssessment().setGlobalGrade(getGlobalGrade(response.getResult().getOutput().getContent()));
-                assessment.getAiAssessment().setComponentsGrades(getComponentsGrades(response.getResult().getOutput().getContent()));
-
-                DocumentReference assessmentRef = getCollectionReferenceAssessments(activityId).document(studentDTO.getId());
-                assessmentRef.set(getDocData(assessment)).get();
-
-                processedAssessments.add(assessment);
             }
-            return processedAssessments;
+            alreadyGraded.forEach(listener::onGraded);
+            List<AssessmentDTO> graded = new ArrayList<>(alreadyGraded);
+            graded.addAll(gradePending(activityId, course, activity, pendingAssessments, bypassCache, listener));
+            return graded;
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-//            e.printStackTrace();
             throw new RuntimeException("Failed to generate assessments for activity ID: " + activityId, e);
         }
     }
 
+    @Override
+    public Integer reindexNeedsGrading(String activityId) {
+        if (activityId == null || activityId.isBlank())
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        try {
+            if (activityService.getActivity(activityId) == null) return null;
+            Firestore firestore = firebase.getFirestore();
+            int updated = 0;
+            String cursor = null;
+            do {
+                PageDTO<DocumentSnapshot> page = pager.fetch(getCollectionReferenceAssessments(activityId), cursor,
+                        Integer.MAX_VALUE, NEEDS_GRADING_FIELDS, doc -> doc); // Pages of the maximum page size
+                WriteBatch batch = firestore.batch();
+                int writes = 0;
+                for (DocumentSnapshot doc : page.getItems()) {
+                    // Flags written with the document are exact and kept; only missing ones are derived
+                    if (doc.contains("needsGrading")) continue;
+                    batch.update(doc.getReference(), "needsGrading", needsGrading(doc.getString("status"),
+                            doc.getDouble("aiAssessment.globalGrade")));
+                    writes++;
+                }
+                if (writes > 0) firestoreMetrics.time("assessments.batch", batch.commit()).get();
+                updated += writes;
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            return updated;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to reindex assessments for activity ID: " + activityId, e);
+        }
+    }
+
+    private CompletableFuture<Map<String, AssessmentDTO>> queryNeedsGrading(String activityId) {
+        return FirestoreFutures.toCompletable(firestoreMetrics.time(
+                "assessments.query", getCollectionReferenceAssessments(activityId).whereEqualTo("needsGrading", true).get())
+        ).thenApply(AssessmentManagementServiceImplement::byDocumentId);
+    }
+
+    private static Map<String, AssessmentDTO> byDocumentId(QuerySnapshot snapshot) {
+        Map<String, AssessmentDTO> assessments = new HashMap<>(snapshot.size() * 2);
+        for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+            assessments.put(doc.getId(), doc.toObject(AssessmentDTO.class));
+        }
+        return assessments;
+    }
+
+    private List<AssessmentDTO> gradePending(String activityId, CourseDTO course, ActivityDTO activity,
+                                             List<AssessmentDTO> pendingAssessments, boolean bypassCache, GradingListener listener) {
+        listener.onStart(pendingAssessments.stream().map(AssessmentDTO::getId).toList());
+        return gradingEngine.gradeAll(activityId, pendingAssessments, assessment -> {
+            try {
+                listener.onGrading(assessment.getId());
+                AssessmentDTO graded = gradeAndSave(activityId, course, activity, assessment, bypassCache);
+                listener.onGraded(graded);
+                return graded;
+            } catch (Exception e) {
+                listener.onFailed(assessment.getId(), e);
+                throw e;
+            }
+        });
+    }
+
+    private AssessmentDTO gradeAndSave(String activityId, CourseDTO course, ActivityDTO activity, AssessmentDTO assessment,
+                                       boolean bypassCache) throws Exception {
+        GradingPrompt prompt = getFormat(course, activity, assessment);
+        String content = getAssessmentByGPTModel("assess", prompt, bypassCache, null);
+        ActivitySummaryStore.Grade previous = ActivitySummaryStore.Grade.of(assessment);
+
+        if (assessment.getAiAssessment() == null) {
+            assessment.setAiAssessment(new AssessmentDTO.AIAssessment());
+        }
+        ParsedGrades grades = parseGrades(content);
+        assessment.getAiAssessment().setAiGeneration(content);
+        assessment.getAiAssessment().setGlobalGrade(grades.globalGrade());
+        assessment.getAiAssessment().setComponentsGrades(grades.componentsGrades());
+
+        DocumentReference assessmentRef = getCollectionReferenceAssessments(activityId).document(assessment.getId());
+        firestoreMetrics.time("assessments.set", assessmentRef.set(getDocData(assessment))).get();
+        summaryStore.record(activityId, previous, assessment);
+        return assessment;
+    }
+
     @Override
     public List<AssessmentDTO> getAssessmentByActivity(String activityId) {
+        return getAssessmentByActivity(activityId, null);
+    }
+
+    @Override
+    public List<AssessmentDTO> getAssessmentByActivity(String activityId, String status) {
         if (activityId == null || activityId.isBlank())
             throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        if (status != null && !status.isBlank() && !STATUSES.contains(status))
+            throw new IllegalArgumentException("Unsupported status: " + status + " (expected 'reviewed', 'pending' or 'missing')");
         List<AssessmentDTO> response = new ArrayList<>();
         try {
-            ApiFuture<DocumentSnapshot> docSnapshot = getDocumentReferenceActivity(activityId).get();
-            if (!docSnapshot.get().exists()) return null;
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollectionReferenceAssessments(activityId).get();
+            if (activityService.getActivity(activityId) == null) return null;
+            Query query = getCollectionReferenceAssessments(activityId);
+            if (status != null && !status.isBlank()) query = query.whereEqualTo("status", status);
+            ApiFuture<QuerySnapshot> querySnapshotApiFuture = firestoreMetrics.time("assessments.query", query.get());
             List<QueryDocumentSnapshot> documents = querySnapshotApiFuture.get().getDocuments();
             for (DocumentSnapshot doc : documents) {
                 AssessmentDTO assess = doc.toObject(AssessmentDTO.class);
@@ -152,33 +292,126 @@ public class AssessmentManagementServiceImplement implements AssessmentManagemen
         }
     }
 
+    @Override
+    public PageDTO<AssessmentDTO> getAssessmentByActivity(String activityId, String cursor, Integer limit, String fields) {
+        if (activityId == null || activityId.isBlank())
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        try {
+            return pager.fetch(getCollectionReferenceAssessments(activityId), cursor, limit,
+                    FirestorePager.projection(fields, SUMMARY_FIELDS), doc -> {
+                        AssessmentDTO assess = doc.toObject(AssessmentDTO.class);
+                        if (assess != null) assess.setId(doc.getId());
+                        return assess;
+                    });
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch assessments for activity ID: " + activityId, e);
+        }
+    }
+
     @Override
     public List<AssessmentDTO> addSubmissions(String activityId, List<AssessmentDTO> assessments) {
         if (activityId == null || activityId.isBlank())
             throw new IllegalArgumentException("Activity ID cannot be null or empty.");
         if (assessments == null || assessments.isEmpty())
             throw new IllegalArgumentException("Assessments list cannot be null or empty.");
-        List<AssessmentDTO> addedAssessments = new ArrayList<>();
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        for (AssessmentDTO assessment : assessments) {
+            if (assessment == null || assessment.getId() == null)
+                throw new IllegalArgumentException("Assessment or Assessment ID cannot be null.");
+            documents.put(assessment.getId(), getDocData(assessment));
+        }
         try {
-            ApiFuture<DocumentSnapshot> docSnapshot = getDocumentReferenceActivity(activityId).get();
-            if (!docSnapshot.get().exists()) {
+            // The grades being replaced are read alongside the activity, so the summary can subtract them
+            CollectionReference assessmentsRef = getCollectionReferenceAssessments(activityId);
+            DocumentReference[] refs = documents.keySet().stream().map(assessmentsRef::document).toArray(DocumentReference[]::new);
+            CompletableFuture<List<DocumentSnapshot>> previousFuture = FirestoreFutures.toCompletable(firestoreMetrics.time(
+                    "assessments.getAll", firebase.getFirestore().getAll(refs, FieldMask.of(ActivitySummaryStore.GRADE_FIELDS))));
+            if (activityService.getActivity(activityId) == null) {
                 return null;
             }
-            for (AssessmentDTO assessment : assessments) {
-                ApiFuture<WriteResult> future = getCollectionReferenceAssessments(activityId)
-                        .document(assessment.getId())
-                        .set(getDocData(assessment));
-                future.get();
-                addedAssessments.add(assessment);
+            Map<String, ActivitySummaryStore.Grade> previous = new HashMap<>();
+            for (DocumentSnapshot doc : previousFuture.join()) {
+                if (doc.exists()) previous.put(doc.getId(), ActivitySummaryStore.Grade.of(doc.toObject(AssessmentDTO.class)));
             }
-            return addedAssessments;
+            Set<String> failedIds = new HashSet<>(bulkWriter.setAll(assessmentsRef, documents));
+            List<AssessmentDTO> written = assessments.stream()
+                    .filter(assessment -> !failedIds.contains(assessment.getId()))
+                    .toList();
+            summaryStore.record(activityId, previous, written);
+            return written;
         } catch (Exception e) {
             throw new RuntimeException("Failed to add submissions for activity ID: " + activityId, e);
         }
     }
 
+    @Override
+    public AssessmentDTO saveSubmission(String activityId, String studentId, String submission, String fileType,
+                                       boolean overwrite) {
+        if (activityId == null || activityId.isBlank())
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        if (studentId == null || studentId.isBlank())
+            throw new IllegalArgumentException("Student ID cannot be null or empty.");
+        if (submission == null)
+            throw new IllegalArgumentException("Submission cannot be null.");
+        try {
+            DocumentReference assessmentRef = getCollectionReferenceAssessments(activityId).document(studentId);
+            CompletableFuture<DocumentSnapshot> existingFuture = FirestoreFutures.toCompletable(
+                    firestoreMetrics.time("assessments.get", assessmentRef.get()));
+            if (activityService.getActivity(activityId) == null) {
+                return null;
+            }
+            DocumentSnapshot existing = existingFuture.join();
+            AssessmentDTO assessment = existing.exists() ? existing.toObject(AssessmentDTO.class) : null;
+            ActivitySummaryStore.Grade previous = ActivitySummaryStore.Grade.of(assessment);
+            if (assessment == null) assessment = new AssessmentDTO();
+            boolean graded = assessment.getAiAssessment() != null || assessment.getReAssessment() != null;
+            if (graded && !overwrite) {
+                throw new IllegalArgumentException("The assessment of student ID: " + studentId
+                        + " is already graded; set overwrite to replace its submission and grades.");
+            }
+            assessment.setId(studentId);
+            assessment.setSubmission(submission);
+            assessment.setFileType(fileType);
+
+            // Merged, so the status and the teacher's feedback are kept
+            Map<String, Object> docData = new HashMap<>();
+            docData.put("id", studentId);
+            docData.put("submission", submission);
+            docData.put("fileType", fileType);
+            if (graded) {
+                // The grades were given to the replaced submission
+                docData.put("aiAssessment", FieldValue.delete());
+                docData.put("reAssessment", FieldValue.delete());
+                assessment.setAiAssessment(null);
+                assessment.setReAssessment(null);
+            }
+            docData.put("needsGrading", needsGrading(assessment));
+            assessment.setNeedsGrading(needsGrading(assessment));
+            firestoreMetrics.time("assessments.set", assessmentRef.set(docData, SetOptions.merge())).get();
+            summaryStore.record(activityId, previous, assessment);
+            return assessment;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save the submission of student ID: " + studentId, e);
+        }
+    }
+
     @Override
     public AssessmentDTO studentReAssessment(String activityId, String studentId, String reAssessmentComment) {
+        return studentReAssessment(activityId, studentId, reAssessmentComment, false);
+    }
+
+    @Override
+    public AssessmentDTO studentReAssessment(String activityId, String studentId, String reAssessmentComment, boolean bypassCache) {
+        return studentReAssessment(activityId, studentId, reAssessmentComment, bypassCache, null);
+    }
+
+    @Override
+    public AssessmentDTO studentReAssessment(String activityId, String studentId, String reAssessmentComment, boolean bypassCache,
+                                             Consumer<String> tokenListener) {
         if (activityId == null || activityId.isBlank())
             throw new IllegalArgumentException("Activity ID cannot be null or empty.");
         if (studentId == null || studentId.isBlank())
@@ -186,28 +419,34 @@ public class AssessmentManagementServiceImplement implements AssessmentManagemen
         if (reAssessmentComment == null || reAssessmentComment.isBlank())
             throw new IllegalArgumentException("Re-assessment comment cannot be null or empty.");
         try {
-            ApiFuture<DocumentSnapshot> activityFuture = getDocumentReferenceActivity(activityId).get();
-            ActivityDTO activity = activityFuture.get().exists() ? activityFuture.get().toObject(ActivityDTO.class) : null;
+            // The assessment read overlaps the activity and course reads
+            CompletableFuture<DocumentSnapshot> assessmentFuture = FirestoreFutures.toCompletable(firestoreMetrics.time(
+                    "assessments.get", getCollectionReferenceAssessments(activityId).document(studentId).get()));
+            ActivityDTO activity = activityService.getActivity(activityId);
             if (activity == null) return null;
-            ApiFuture<DocumentSnapshot> assessmentFuture = getCollectionReferenceAssessments(activityId).document(studentId).get();
-            AssessmentDTO assessment = assessmentFuture.get().exists() ? assessmentFuture.get().toObject(AssessmentDTO.class) : null;
-            if (assessment == null) return null;
-            ApiFuture<DocumentSnapshot> courseFuture = getDocumentReferenceCourse(activity.getCourseId()).get();
-            CourseDTO course = courseFuture.get().exists() ? courseFuture.get().toObject(CourseDTO.class) : null;
+            CourseDTO course = courseService.getCourse(activity.getCourseId());
             if (course == null) return null;
+            DocumentSnapshot assessmentSnapshot = assessmentFuture.join();
+            AssessmentDTO assessment = assessmentSnapshot.exists() ? assessmentSnapshot.toObject(AssessmentDTO.class) : null;
+            if (assessment == null) return null;
 
-            String prompt = getFormat(course, activity, assessment);
-            prompt += "Consideraciones estos detalles adicionales que se debe tomar en cuenta para la evaluación de cada uno de los componentes de la rúbrica de evaluación: " + reAssessmentComment;
-            ChatResponse response = getAssessmentByGPTModel(prompt);
+            // The teacher's comment follows the submission, after the shared per-activity prefix
+            GradingPrompt prompt = getFormat(course, activity, assessment).withUser(
+                    "Consideraciones estos detalles adicionales que se debe tomar en cuenta para la evaluación de cada uno de los componentes de la rúbrica de evaluación: " + reAssessmentComment);
+            String content = getAssessmentByGPTModel("re-assess", prompt, bypassCache, tokenListener);
 
+            ActivitySummaryStore.Grade previous = ActivitySummaryStore.Grade.of(assessment);
             if (assessment.getReAssessment() == null) assessment.setReAssessment(new AssessmentDTO.ReAssessment());
 
-            assessment.getReAssessment().setAiGeneration(response.getResult().getOutput().getContent());
+            ParsedGrades grades = parseGrades(content);
+            assessment.getReAssessment().setAiGeneration(content);
             assessment.getReAssessment().setTeacherComment(reAssessmentComment);
-            assessment.getReAssessment().setGlobalGrade(getGlobalGrade(response.getResult().getOutput().getContent()));
-            assessment.getReAssessment().setComponentsGrades(getComponentsGrades(response.getResult().getOutput().getContent()));
+            assessment.getReAssessment().setGlobalGrade(grades.globalGrade());
+            assessment.getReAssessment().setComponentsGrades(grades.componentsGrades());
+            assessment.setId(studentId);
             DocumentReference assessmentRef = getCollectionReferenceAssessments(activityId).document(studentId);
-            assessmentRef.set(getDocData(assessment)).get();
+            firestoreMetrics.time("assessments.set", assessmentRef.set(getDocData(assessment))).get();
+            summaryStore.record(activityId, previous, assessment);
             return assessment;
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate re-assessment for student ID: " + studentId, e);
@@ -220,7 +459,8 @@ public class AssessmentManagementServiceImplement implements AssessmentManagemen
             throw new IllegalArgumentException("Activity ID cannot be null or empty.");
         if (studentId == null || studentId.isBlank())
             throw new IllegalArgumentException("Student ID cannot be null or empty.");
-        ApiFuture<DocumentSnapshot> docFuture = getCollectionReferenceAssessments(activityId).document(studentId).get();
+        ApiFuture<DocumentSnapshot> docFuture = firestoreMetrics.time("assessments.get",
+                getCollectionReferenceAssessments(activityId).document(studentId).get());
         try {
             DocumentSnapshot document = docFuture.get();
             if (!document.exists()) return null;
@@ -243,44 +483,96 @@ public class AssessmentManagementServiceImplement implements AssessmentManagemen
             throw new IllegalArgumentException("Assessment or Assessment ID cannot be null.");
         if (!studentId.equals(assessment.getId()))
             throw new IllegalArgumentException("Student ID and Assessment ID must be the same.");
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollectionReferenceAssessments(activityId).document(studentId).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("assessments.get",
+                getCollectionReferenceAssessments(activityId).document(studentId).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (!document.exists()) return null;
-            WriteResult writeResult = getCollectionReferenceAssessments(activityId).document(studentId).set(getDocData(assessment)).get();
+            WriteResult writeResult = firestoreMetrics.time("assessments.set",
+                    getCollectionReferenceAssessments(activityId).document(studentId).set(getDocData(assessment))).get();
             if (writeResult == null) throw new RuntimeException("Failed to update the assessment");
+            summaryStore.record(activityId, ActivitySummaryStore.Grade.of(document.toObject(AssessmentDTO.class)), assessment);
             return assessment;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update assessment for student ID: " + studentId, e);
         }
     }
 
-    private static String getFormat(CourseDTO course, ActivityDTO activity, AssessmentDTO assessment) {
-        return MessageFormat.format(
-                PROMPT_TEMPLATE,
-                course.getSubject(),
-                activity.getUnitTheme(),
-                activity.getName(),
-                activity.getExpectedLearningOutcomes(),
-                activity.getDidacticStrategies(),
-                assessment.getSubmission(),
-                activity.getAssessmentRubric()
-        ) + " El formato de la Respuesta debe ser con la siguiente estructura:" + JSON_SCHEMA;
+    @Override
+    public ActivitySummaryDTO getActivitySummary(String activityId, boolean rebuild) {
+        if (activityId == null || activityId.isBlank())
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        try {
+            if (activityService.getActivity(activityId) == null) return null;
+            return summaryStore.get(activityId, rebuild);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch the summary for activity ID: " + activityId, e);
+        }
     }
 
-    private ChatResponse getAssessmentByGPTModel(String prompt) {
-        return chatClient.call(
-                new Prompt(
-                        prompt,
-                        OpenAiChatOptions
-                                .builder()
-                                .withModel("gpt-4o")
-                                .withTemperature(0.1F)
-                                .withTopP(0.4F)
-                                .withResponseFormat(new ResponseFormat("json_object"))
-                                .withMaxTokens(1000)
-                                .build())
-        );
+    /**
+     * With a token listener the completion is streamed and every chunk is forwarded as it arrives;
+     * a cached response is forwarded as a single chunk.
+     */
+    private String getAssessmentByGPTModel(String operation, GradingPrompt prompt, boolean bypassCache, Consumer<String> tokenListener) {
+        OpenAiChatOptions options = OpenAiChatOptions
+                .builder()
+                .withModel(MODEL)
+                .withTemperature(0.1F)
+                .withTopP(0.4F)
+                .withResponseFormat(new ResponseFormat("json_object"))
+                .withMaxTokens(1000)
+                .build();
+        String cacheKey = responseCache.key(prompt.system() + "\u0000" + prompt.user(), options);
+        Prompt request = new Prompt(List.of(new SystemMessage(prompt.system()), new UserMessage(prompt.user())), options);
+        if (!bypassCache) {
+            Optional<String> cached = responseCache.get(cacheKey);
+            if (cached.isPresent()) {
+                if (tokenListener != null) tokenListener.accept(cached.get());
+                return cached.get();
+            }
+        }
+        String content;
+        int estimatedTokens = llmScheduler.estimateTokens(prompt.system() + prompt.user(), options.getMaxTokens());
+        llmMetrics.recordPromptPrefix(operation, MODEL, llmScheduler.estimateTokens(prompt.system(), 0));
+        if (tokenListener == null) {
+            ChatResponse response = llmScheduler.execute(estimatedTokens,
+                    () -> llmMetrics.call(operation, MODEL, () -> chatClient.call(request)));
+            llmScheduler.release(estimatedTokens, totalTokens(response));
+            content = response.getResult().getOutput().getContent();
+        } else {
+            // Tokens already forwarded cannot be taken back, so a failed stream is not retried
+            llmScheduler.acquire(estimatedTokens);
+            StringBuilder streamed = new StringBuilder();
+            try {
+                // Streamed responses carry no usage, so only their latency is recorded
+                llmMetrics.time(operation, MODEL, () -> streamingChatClient.stream(request)
+                        .doOnNext(chunk -> {
+                            if (chunk.getResults().isEmpty()) return;
+                            String token = chunk.getResults().get(0).getOutput().getContent();
+                            if (token == null || token.isEmpty()) return;
+                            streamed.append(token);
+                            tokenListener.accept(token);
+                        })
+                        .blockLast());
+            } catch (RuntimeException e) {
+                llmScheduler.onFailure(e, 1);
+                throw e;
+            } finally {
+                // Without usage, what was actually used is estimated from the prompt and the streamed text
+                llmScheduler.release(estimatedTokens,
+                        llmScheduler.estimateTokens(prompt.system() + prompt.user(), 0) + (streamed.length() + 3) / 4);
+            }
+            content = streamed.toString();
+        }
+        if (parseGrades(content).globalGrade() != null) responseCache.put(cacheKey, content);
+        return content;
+    }
+
+    private static long totalTokens(ChatResponse response) {
+        if (response.getMetadata() == null || response.getMetadata().getUsage() == null) return 0;
+        Long total = response.getMetadata().getUsage().getTotalTokens();
+        return total == null ? 0 : total;
     }
 
     private DocumentReference getDocumentReferenceCourse(String courseId) {
@@ -294,90 +586,4 @@ public class AssessmentManagementServiceImplement implements AssessmentManagemen
     private CollectionReference getCollectionReferenceAssessments(String activityId) {
         return getDocumentReferenceActivity(activityId).collection("assessments");
     }
-
-    private static Double getGlobalGrade(String response) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(response);
-            return rootNode.path("properties").path("globalGrade").asDouble();
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private static Map<String, AssessmentDTO.ComponentGrade> getComponentsGrades(String response) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(response);
-
-            // Obtener el nodo "componentsGrades"
-            JsonNode componentsGradesNode = rootNode.path("properties").path("componentsGrades");
-            Map<String, AssessmentDTO.ComponentGrade> componentsGrades = new HashMap<>();
-
-            // Iterar sobre los elementos del nodo "componentsGrades"
-            Iterator<Map.Entry<String, JsonNode>> fields = componentsGradesNode.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> field = fields.next();
-                String componentName = field.getKey();
-                JsonNode componentData = field.getValue().path("properties");
-
-                // Crear una instancia de ComponentGrade
-                AssessmentDTO.ComponentGrade componentGrade = new AssessmentDTO.ComponentGrade();
-                componentGrade.setContent(componentData.path("content").asText());
-                componentGrade.setGrade(componentData.path("grade").asDouble());
-                componentGrade.setMaxGrade(componentData.path("maxGrade").asDouble());
-
-                // Agregar al mapa
-                componentsGrades.put(componentName, componentGrade);
-            }
-
-            return componentsGrades;
-        } catch (Exception e) {
-            // e.printStackTrace();
-            return null;
-        }
-
-    }
-
-    private static Map<String, Object> getDocData(AssessmentDTO assessment) {
-        Map<String, Object> docData = new HashMap<>();
-        docData.put("id", assessment.getId());
-        docData.put("submission", assessment.getSubmission());
-        docData.put("fileType", assessment.getFileType());
-        docData.put("status", assessment.getStatus());
-        docData.put("feedback", assessment.getFeedback());
-
-
-        // Manejar campos opcionales: AIAssessment y ReAssessment
-        if (assessment.getAiAssessment() != null) {
-            Map<String, Object> aiAssessmentData = new HashMap<>();
-            AssessmentDTO.AIAssessment ai = assessment.getAiAssessment();
-            aiAssessmentData.put("aiGeneration", ai.getAiGeneration());
-            aiAssessmentData.put("generationRating", ai.getGenerationRating());
-            aiAssessmentData.put("globalGrade", ai.getGlobalGrade());
-
-            if (ai.getComponentsGrades() != null) {
-                aiAssessmentData.put("componentsGrades", ai.getComponentsGrades());
-            }
-
-            docData.put("aiAssessment", aiAssessmentData);
-        }
-
-        if (assessment.getReAssessment() != null) {
-            Map<String, Object> reAssessmentData = new HashMap<>();
-            AssessmentDTO.ReAssessment re = assessment.getReAssessment();
-            reAssessmentData.put("aiGeneration", re.getAiGeneration());
-            reAssessmentData.put("generationRating", re.getGenerationRating());
-            reAssessmentData.put("teacherComment", re.getTeacherComment());
-            reAssessmentData.put("globalGrade", re.getGlobalGrade());
-
-            if (re.getComponentsGrades() != null) {
-                reAssessmentData.put("componentsGrades", re.getComponentsGrades());
-            }
-
-            docData.put("reAssessment", reAssessmentData);
-        }
-
-        return docData;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.cloud.firestore.DocumentSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.ai.openai.samples.helloworld.dto.StudentDTO;
+import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Local index of which courses exist and which students belong to them, kept up to date by the
+ * course and student write paths. Rosters are only cached once a full list of the course's students
+ * has been read. Missing courses are remembered for a shorter time than existing ones.
+ */
+@Component
+public class CourseIndex {
+    private final FirebaseInit firebase;
+    private final FirestoreMetrics firestoreMetrics;
+    private final Cache<String, Boolean> courses;
+    private final Cache<String, Map<String, StudentDTO>> students;
+
+    public CourseIndex(
+            FirebaseInit firebase,
+            FirestoreMetrics firestoreMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${index.course.maximum-size:1000}") long maximumSize,
+            @Value("${index.course.ttl-minutes:10}") long ttlMinutes,
+            @Value("${index.course.negative-ttl-seconds:30}") long negativeTtlSeconds
+    ) {
+        this.firebase = firebase;
+        this.firestoreMetrics = firestoreMetrics;
+        long ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.courses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(String courseId, Boolean exists, long currentTime) {
+                        return exists ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String courseId, Boolean exists, long currentTime, long currentDuration) {
+                        return exists ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String courseId, Boolean exists, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.students = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, courses, "course-existence");
+        CaffeineCacheMetrics.monitor(meterRegistry, students, "course-students");
+    }
+
+    public boolean courseExists(String courseId) {
+        return courses.get(courseId, id -> {
+            try {
+                return firestoreMetrics.time("courses.get",
+                        firebase.getFirestore().collection("courses").document(id).get()).get().exists();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to check course ID: " + id, e);
+            }
+        });
+    }
+
+    public void courseAdded(String courseId) {
+        courses.put(courseId, Boolean.TRUE);
+    }
+
+    public void courseDeleted(String courseId) {
+        courses.put(courseId, Boolean.FALSE);
+        students.asMap().compute(courseId, (id, stale) -> null);
+    }
+
+    /**
+     * Returns the student of the course, or null if it is not enrolled. Students found in a roster already loaded
+     * by a list call answer without a read; otherwise, as the student may have been added by another instance,
+     * only the student's document is read.
+     */
+    public StudentDTO getStudent(String courseId, String studentId) {
+        Map<String, StudentDTO> roster = students.getIfPresent(courseId);
+        StudentDTO cached = roster == null ? null : roster.get(studentId);
+        if (cached != null) return cached;
+        try {
+            DocumentSnapshot doc = firestoreMetrics.time("students.get", firebase.getFirestore().collection("courses")
+                    .document(courseId).collection("students").document(studentId).get()).get();
+            StudentDTO student = doc.exists() ? doc.toObject(StudentDTO.class) : null;
+            if (student != null) student.setId(doc.getId());
+            return student;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load student ID: " + studentId, e);
+        }
+    }
+
+    /**
+     * Reads the full roster of the course with the query and caches it, unless the query returns null. The read
+     * runs inside compute, so {@link #studentSaved} and {@link #studentRemoved} wait for a read in progress instead
+     * of having their change overwritten by a roster read before the write.
+     */
+    public List<StudentDTO> loadStudents(String courseId, Supplier<List<StudentDTO>> query) {
+        AtomicReference<List<StudentDTO>> loaded = new AtomicReference<>();
+        students.asMap().compute(courseId, (id, stale) -> {
+            List<StudentDTO> roster = query.get();
+            loaded.set(roster);
+            if (roster == null) return null;
+            Map<String, StudentDTO> byId = new ConcurrentHashMap<>();
+            roster.forEach(student -> byId.put(student.getId(), student));
+            return byId;
+        });
+        return loaded.get();
+    }
+
+    public void studentSaved(String courseId, StudentDTO student) {
+        students.asMap().computeIfPresent(courseId, (id, roster) -> {
+            roster.put(student.getId(), student);
+            return roster;
+        });
+    }
+
+    public void studentRemoved(String courseId, String studentId) {
+        students.asMap().computeIfPresent(courseId, (id, roster) -> {
+            roster.remove(studentId);
+            return roster;
+        });
+    }
+}
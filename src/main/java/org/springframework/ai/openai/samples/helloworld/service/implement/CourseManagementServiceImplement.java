@@ -1,42 +1,75 @@
 package org.springframework.ai.openai.samples.helloworld.service.implement;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.ai.openai.samples.helloworld.dto.CourseDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
 import org.springframework.ai.openai.samples.helloworld.service.CourseManagementService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
 public class CourseManagementServiceImplement implements CourseManagementService {
+    private static final String[] SUMMARY_FIELDS = {
+            "id", "subject", "subjectCode", "modality", "teacherId", "academicPeriod", "academicLevel"
+    };
+
     private final FirebaseInit firebaseInit;
+    private final FirestorePager pager;
+    private final FirestoreMetrics firestoreMetrics;
+    // Snapshots are immutable, so every caller gets its own CourseDTO and cannot change the cached course
+    private final Cache<String, DocumentSnapshot> courseCache;
+    private final CourseIndex courseIndex;
 
-    public CourseManagementServiceImplement(FirebaseInit firebaseInit) {
+    public CourseManagementServiceImplement(
+            FirebaseInit firebaseInit,
+            CourseIndex courseIndex,
+            FirestorePager pager,
+            FirestoreMetrics firestoreMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${cache.context.maximum-size:500}") long maximumSize,
+            @Value("${cache.context.ttl-minutes:10}") long ttlMinutes
+    ) {
         this.firebaseInit = firebaseInit;
+        this.courseIndex = courseIndex;
+        this.pager = pager;
+        this.firestoreMetrics = firestoreMetrics;
+        this.courseCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, courseCache, "courses");
     }
 
     @Override
-    public List<CourseDTO> list() {
-        List<CourseDTO> response = new ArrayList<>();
+    public PageDTO<CourseDTO> list(String cursor, Integer limit, String fields) {
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection().get();
-            return getCourseDTOS(response, querySnapshotApiFuture);
+            return pager.fetch(getCollection(), cursor, limit,
+                    FirestorePager.projection(fields, SUMMARY_FIELDS), CourseManagementServiceImplement::toCourse);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch courses", e);
         }
     }
 
     @Override
-    public List<CourseDTO> getCoursesByTeacher(String teacherId) {
-        List<CourseDTO> response = new ArrayList<>();
+    public PageDTO<CourseDTO> getCoursesByTeacher(String teacherId, String cursor, Integer limit, String fields) {
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection().whereEqualTo("teacherId", teacherId).get();
-            return getCourseDTOS(response, querySnapshotApiFuture);
+            return pager.fetch(getCollection().whereEqualTo("teacherId", teacherId), cursor, limit,
+                    FirestorePager.projection(fields, SUMMARY_FIELDS), CourseManagementServiceImplement::toCourse);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch courses for teacher ID: " + teacherId, e);
         }
@@ -47,19 +80,20 @@ public class CourseManagementServiceImplement implements CourseManagementService
         if (id == null || id.isEmpty()) {
             throw new IllegalArgumentException("ID cannot be null or empty");
         }
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
-        try {
-            DocumentSnapshot document = documentSnapshotApiFuture.get();
-            if (!document.exists()) return null;
-            CourseDTO course = document.toObject(CourseDTO.class);
-            if (course == null) return null;
-            course.setId(document.getId());
-            return course;
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException(e.getMessage());
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch course for ID: " + id, e);
-        }
+        // Loading through the cache lets an invalidation wait for a read in progress instead of racing it
+        DocumentSnapshot document = courseCache.get(id, key -> {
+            try {
+                DocumentSnapshot snapshot = firestoreMetrics.time("courses.get", getCollection().document(key).get()).get();
+                return snapshot.exists() ? snapshot : null;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch course for ID: " + key, e);
+            }
+        });
+        if (document == null) return null;
+        CourseDTO course = document.toObject(CourseDTO.class);
+        if (course == null) return null;
+        course.setId(document.getId());
+        return course;
     }
 
     @Override
@@ -77,14 +111,15 @@ public class CourseManagementServiceImplement implements CourseManagementService
             throw new IllegalArgumentException("Course or Course ID cannot be null");
         }
         try {
-            DocumentSnapshot document = getCollection().document(course.getId()).get().get();
+            DocumentSnapshot document = firestoreMetrics.time("courses.get", getCollection().document(course.getId()).get()).get();
             if (document.exists()) {
                 throw new IllegalArgumentException("Course already exists");
             }
-            WriteResult writeResult = getCollection().document(course.getId()).create(getDocData(course)).get();
+            WriteResult writeResult = firestoreMetrics.time("courses.create", getCollection().document(course.getId()).create(getDocData(course))).get();
             if (writeResult == null) {
                 throw new RuntimeException("Failed to add the course");
             }
+            courseIndex.courseAdded(course.getId());
             return course;
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException(e.getMessage());
@@ -101,11 +136,12 @@ public class CourseManagementServiceImplement implements CourseManagementService
             throw new IllegalArgumentException("Course or Course ID cannot be null");
         if (!course.getId().equals(id))
             throw new IllegalArgumentException("Course ID cannot be null or different from the ID in the path");
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("courses.get", getCollection().document(id).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (!document.exists()) return null;
-            WriteResult writeResult = getCollection().document(id).set(getDocData(course)).get();
+            WriteResult writeResult = firestoreMetrics.time("courses.set", getCollection().document(id).set(getDocData(course))).get();
+            invalidate(id);
             if (writeResult == null) throw new RuntimeException("Failed to update the course");
             return course;
         } catch (Exception e) {
@@ -116,14 +152,16 @@ public class CourseManagementServiceImplement implements CourseManagementService
     @Override
     public CourseDTO delete(String id) {
         if (id == null || id.isEmpty()) throw new IllegalArgumentException("ID cannot be null or empty");
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("courses.get", getCollection().document(id).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (!document.exists()) return null;
             CourseDTO course = document.toObject(CourseDTO.class);
             assert course != null;
             course.setId(document.getId());
-            WriteResult writeResult = getCollection().document(id).delete().get();
+            WriteResult writeResult = firestoreMetrics.time("courses.delete", getCollection().document(id).delete()).get();
+            invalidate(id);
+            courseIndex.courseDeleted(id);
             if (writeResult == null) {
                 throw new RuntimeException("Failed to delete the course");
             }
@@ -133,19 +171,18 @@ public class CourseManagementServiceImplement implements CourseManagementService
         }
     }
 
-    private List<CourseDTO> getCourseDTOS(List<CourseDTO> response, ApiFuture<QuerySnapshot> querySnapshotApiFuture) {
-        CourseDTO course;
-        try {
-            for (DocumentSnapshot doc : querySnapshotApiFuture.get().getDocuments()) {
-                course = doc.toObject(CourseDTO.class);
-                assert course != null;
-                course.setId(doc.getId());
-                response.add(course);
-            }
-            return response;
-        } catch (Exception e) {
-            return null;
-        }
+    private static CourseDTO toCourse(DocumentSnapshot doc) {
+        CourseDTO course = doc.toObject(CourseDTO.class);
+        if (course != null) course.setId(doc.getId());
+        return course;
+    }
+
+    /**
+     * Removes the cached course once a write has completed. Unlike invalidate, compute waits for a load of the
+     * same ID that is still running, so a snapshot read before the write is not left behind in the cache.
+     */
+    private void invalidate(String id) {
+        courseCache.asMap().compute(id, (key, stale) -> null);
     }
 
     private CollectionReference getCollection() {
@@ -0,0 +1,98 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterException;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.WriteResult;
+import io.grpc.Status;
+import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+@Component
+public class FirestoreBulkWriter {
+    private static final Set<Status.Code> RETRYABLE_CODES = EnumSet.of(
+            Status.Code.ABORTED,
+            Status.Code.CANCELLED,
+            Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.INTERNAL,
+            Status.Code.RESOURCE_EXHAUSTED,
+            Status.Code.UNAVAILABLE,
+            Status.Code.UNKNOWN
+    );
+
+    private final FirebaseInit firebase;
+    private final FirestoreMetrics firestoreMetrics;
+    private final int maxAttempts;
+
+    public FirestoreBulkWriter(FirebaseInit firebase, FirestoreMetrics firestoreMetrics,
+                               @Value("${firestore.bulk.max-attempts:5}") int maxAttempts) {
+        this.firebase = firebase;
+        this.firestoreMetrics = firestoreMetrics;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Creates every document of the map (key: document ID) and returns the IDs that could not be written,
+     * including the ones that already exist.
+     */
+    public List<String> createAll(CollectionReference collection, Map<String, Map<String, Object>> documents) {
+        return writeAll(collection, documents, true);
+    }
+
+    /**
+     * Sets (creates or overwrites) every document of the map (key: document ID) and returns the IDs that could not be written.
+     */
+    public List<String> setAll(CollectionReference collection, Map<String, Map<String, Object>> documents) {
+        return writeAll(collection, documents, false);
+    }
+
+    private List<String> writeAll(CollectionReference collection, Map<String, Map<String, Object>> documents, boolean create) {
+        // BulkWriter groups the writes into batches, keeps several commits in flight and retries transient errors
+        BulkWriter bulkWriter = firebase.getFirestore().bulkWriter();
+        bulkWriter.addWriteErrorListener(this::shouldRetry);
+
+        Map<String, ApiFuture<WriteResult>> futures = new LinkedHashMap<>();
+        String operation = collection.getId() + (create ? ".bulkCreate" : ".bulkSet");
+        try {
+            for (Map.Entry<String, Map<String, Object>> document : documents.entrySet()) {
+                // Each document is timed from being queued until its batch is committed
+                futures.put(document.getKey(), firestoreMetrics.time(operation, create
+                        ? bulkWriter.create(collection.document(document.getKey()), document.getValue())
+                        : bulkWriter.set(collection.document(document.getKey()), document.getValue())));
+            }
+        } finally {
+            closeAndWait(bulkWriter);
+        }
+
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, ApiFuture<WriteResult>> future : futures.entrySet()) {
+            try {
+                if (future.getValue().get() == null) {
+                    failed.add(future.getKey());
+                }
+            } catch (Exception e) {
+                failed.add(future.getKey());
+            }
+        }
+        return failed;
+    }
+
+    private static void closeAndWait(BulkWriter bulkWriter) {
+        try {
+            bulkWriter.close(); // Flushes the pending writes and waits for them
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Each write reports its own failure through its future
+        }
+    }
+
+    private boolean shouldRetry(BulkWriterException error) {
+        return error.getFailedAttempts() < maxAttempts && RETRYABLE_CODES.contains(error.getStatus().getCode());
+    }
+}
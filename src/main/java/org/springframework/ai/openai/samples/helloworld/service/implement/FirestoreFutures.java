@@ -0,0 +1,39 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adapts Firestore {@link ApiFuture}s to {@link CompletableFuture}s, so independent reads can be issued
+ * together, composed and joined once instead of blocking on each in turn.
+ */
+final class FirestoreFutures {
+    private FirestoreFutures() {
+    }
+
+    static <T> CompletableFuture<T> toCompletable(ApiFuture<T> future) {
+        CompletableFuture<T> completable = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                future.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                completable.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                completable.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return completable;
+    }
+}
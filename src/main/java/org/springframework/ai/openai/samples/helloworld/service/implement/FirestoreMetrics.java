@@ -0,0 +1,51 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of Firestore calls as the {@code firestore.calls} timer, tagged by operation
+ * ({@code <collection>.<get|query|set|create|delete|...>}) and outcome. The timer starts when the future is
+ * wrapped, right after the call is issued, and stops when it completes, whoever waits for it.
+ */
+@Component
+public class FirestoreMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public FirestoreMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> ApiFuture<T> time(String operation, ApiFuture<T> future) {
+        long start = System.nanoTime();
+        ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                record(operation, "success", start);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                record(operation, "error", start);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    private void record(String operation, String outcome, long start) {
+        Timer.builder("firestore.calls")
+                .description("Latency of Firestore calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
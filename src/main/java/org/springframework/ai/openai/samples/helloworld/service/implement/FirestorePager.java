@@ -0,0 +1,71 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+@Component
+public class FirestorePager {
+    private final FirestoreMetrics firestoreMetrics;
+    private final int maxPageSize;
+
+    public FirestorePager(FirestoreMetrics firestoreMetrics, @Value("${pagination.max-page-size:100}") int maxPageSize) {
+        this.firestoreMetrics = firestoreMetrics;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Fields to read for the fields request parameter: null (every field) for "full" or no value,
+     * the given summary fields for "summary".
+     */
+    public static String[] projection(String fields, String[] summaryFields) {
+        if (fields == null || fields.isBlank() || "full".equals(fields)) return null;
+        if ("summary".equals(fields)) return summaryFields;
+        throw new IllegalArgumentException("Unsupported fields value: " + fields + " (expected 'full' or 'summary')");
+    }
+
+    /**
+     * Runs the query ordered by document ID, starting after the cursor (a document ID) and reading at most
+     * limit documents, capped at the maximum page size. Without limit and cursor the whole result is read,
+     * as before pagination. When fields are given only those are downloaded.
+     */
+    public <T> PageDTO<T> fetch(Query query, String cursor, Integer limit, String[] fields, Function<DocumentSnapshot, T> mapper)
+            throws ExecutionException, InterruptedException {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        String operation = (query instanceof CollectionReference collection ? collection.getId() : "query") + ".page";
+        boolean paginated = limit != null || (cursor != null && !cursor.isBlank());
+        int pageSize = limit == null ? maxPageSize : Math.min(limit, maxPageSize);
+
+        if (fields != null) query = query.select(fields);
+        if (paginated) {
+            query = query.orderBy(FieldPath.documentId());
+            if (cursor != null && !cursor.isBlank()) query = query.startAfter(cursor);
+            query = query.limit(pageSize + 1); // One extra document tells whether there is a next page
+        }
+
+        List<? extends DocumentSnapshot> documents = firestoreMetrics.time(operation, query.get()).get().getDocuments();
+        boolean hasMore = paginated && documents.size() > pageSize;
+        if (hasMore) documents = documents.subList(0, pageSize);
+
+        List<T> items = new ArrayList<>(documents.size());
+        for (DocumentSnapshot doc : documents) {
+            T item = mapper.apply(doc);
+            if (item != null) items.add(item);
+        }
+        PageDTO<T> page = new PageDTO<>();
+        page.setItems(items);
+        page.setNextCursor(hasMore ? documents.get(documents.size() - 1).getId() : null);
+        return page;
+    }
+}
@@ -0,0 +1,177 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.StudentDTO;
+import org.springframework.ai.openai.samples.helloworld.service.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Gradebook export that reads activities and assessments page by page with the summary projection and
+ * writes each page before reading the next, so memory depends on the page size and the roster, not on
+ * the number of activities or the length of the generated feedback.
+ */
+@Service
+public class GradebookServiceImplement implements GradebookService {
+    private static final String[] CSV_HEADER = {
+            "courseId", "activityId", "activityName", "studentId", "studentName", "status", "globalGrade", "gradeSource", "componentsGrades"
+    };
+
+    private final CourseManagementService courseService;
+    private final ActivityManagementService activityService;
+    private final StudentManagementService studentService;
+    private final AssessmentManagementService assessmentService;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public GradebookServiceImplement(
+            CourseManagementService courseService,
+            ActivityManagementService activityService,
+            StudentManagementService studentService,
+            AssessmentManagementService assessmentService,
+            ObjectMapper objectMapper,
+            @Value("${pagination.max-page-size:100}") int pageSize
+    ) {
+        this.courseService = courseService;
+        this.activityService = activityService;
+        this.studentService = studentService;
+        this.assessmentService = assessmentService;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean courseExists(String courseId) {
+        if (courseId == null || courseId.isBlank()) {
+            throw new IllegalArgumentException("Course ID cannot be null or empty.");
+        }
+        return courseService.getCourse(courseId) != null;
+    }
+
+    @Override
+    public void exportCourse(String courseId, String format, OutputStream out) throws IOException {
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format + " (expected 'ndjson' or 'csv')");
+        }
+        List<StudentDTO> roster = studentService.getStudentsByCourse(courseId);
+        Map<String, StudentDTO> students = new LinkedHashMap<>();
+        if (roster != null) roster.forEach(student -> students.put(student.getId(), student));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (csv) writeCsvRow(writer, CSV_HEADER);
+
+        String activityCursor = null;
+        do {
+            PageDTO<ActivityDTO> activities = activityService.getActivitiesByCourse(courseId, activityCursor, pageSize, "summary");
+            for (ActivityDTO activity : activities.getItems()) {
+                exportActivity(writer, csv, courseId, activity, students);
+            }
+            activityCursor = activities.getNextCursor();
+        } while (activityCursor != null);
+        writer.flush();
+    }
+
+    private void exportActivity(Writer writer, boolean csv, String courseId, ActivityDTO activity,
+                                Map<String, StudentDTO> students) throws IOException {
+        Set<String> graded = new HashSet<>();
+        String cursor = null;
+        do {
+            PageDTO<AssessmentDTO> assessments = assessmentService.getAssessmentByActivity(activity.getId(), cursor, pageSize, "summary");
+            for (AssessmentDTO assessment : assessments.getItems()) {
+                graded.add(assessment.getId());
+                writeRow(writer, csv, courseId, activity, assessment.getId(), students.get(assessment.getId()), assessment);
+            }
+            writer.flush(); // Hand each page to the client before reading the next one
+            cursor = assessments.getNextCursor();
+        } while (cursor != null);
+
+        // Enrolled students without a submission document
+        for (StudentDTO student : students.values()) {
+            if (!graded.contains(student.getId())) {
+                writeRow(writer, csv, courseId, activity, student.getId(), student, null);
+            }
+        }
+    }
+
+    private void writeRow(Writer writer, boolean csv, String courseId, ActivityDTO activity, String studentId,
+                          StudentDTO student, AssessmentDTO assessment) throws IOException {
+        Double globalGrade = null;
+        String gradeSource = null;
+        Map<String, AssessmentDTO.ComponentGrade> components = null;
+        if (assessment != null && assessment.getReAssessment() != null && assessment.getReAssessment().getGlobalGrade() != null) {
+            globalGrade = assessment.getReAssessment().getGlobalGrade();
+            components = assessment.getReAssessment().getComponentsGrades();
+            gradeSource = "reAssessment";
+        } else if (assessment != null && assessment.getAiAssessment() != null) {
+            globalGrade = assessment.getAiAssessment().getGlobalGrade();
+            components = assessment.getAiAssessment().getComponentsGrades();
+            gradeSource = "aiAssessment";
+        }
+        String status = assessment == null ? "missing" : assessment.getStatus();
+        String studentName = student == null ? null : student.getName();
+
+        if (csv) {
+            StringBuilder componentsGrades = new StringBuilder();
+            if (components != null) {
+                for (Map.Entry<String, AssessmentDTO.ComponentGrade> component : components.entrySet()) {
+                    if (!componentsGrades.isEmpty()) componentsGrades.append("; ");
+                    componentsGrades.append(component.getKey()).append(": ")
+                            .append(component.getValue().getGrade()).append('/').append(component.getValue().getMaxGrade());
+                }
+            }
+            writeCsvRow(writer, courseId, activity.getId(), activity.getName(), studentId, studentName, status,
+                    globalGrade == null ? null : globalGrade.toString(), gradeSource, componentsGrades.toString());
+            return;
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("courseId", courseId);
+        row.put("activityId", activity.getId());
+        row.put("activityName", activity.getName());
+        row.put("studentId", studentId);
+        row.put("studentName", studentName);
+        row.put("status", status);
+        row.put("globalGrade", globalGrade);
+        row.put("gradeSource", gradeSource);
+        if (components != null) {
+            Map<String, Object> componentsGrades = new LinkedHashMap<>();
+            components.forEach((name, grade) -> {
+                Map<String, Object> componentGrade = new LinkedHashMap<>();
+                componentGrade.put("grade", grade.getGrade());
+                componentGrade.put("maxGrade", grade.getMaxGrade());
+                componentsGrades.put(name, componentGrade);
+            });
+            row.put("componentsGrades", componentsGrades);
+        }
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            String value = values[i];
+            if (value == null) continue;
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
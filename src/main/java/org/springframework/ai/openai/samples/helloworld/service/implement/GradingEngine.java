@@ -0,0 +1,150 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class GradingEngine {
+    private final ExecutorService executor;
+    private final Semaphore globalPermits;
+    private final int maxConcurrencyPerActivity;
+    private final Map<String, ActivityPermits> activityPermits = new ConcurrentHashMap<>();
+
+    public GradingEngine(
+            @Value("${assessment.grading.max-concurrency:8}") int maxConcurrency,
+            @Value("${assessment.grading.max-concurrency-per-activity:4}") int maxConcurrencyPerActivity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (maxConcurrency < 1 || maxConcurrencyPerActivity < 1) {
+            throw new IllegalArgumentException("Grading concurrency limits must be greater than zero");
+        }
+        if (virtualThreads) {
+            // Virtual threads are not pooled, so the global cap is a semaphore around each task
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grading-worker-", 1).factory());
+            this.globalPermits = new Semaphore(maxConcurrency);
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            // The pool size is the global cap: every activity shares these workers
+            this.executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "grading-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.globalPermits = null;
+        }
+        this.maxConcurrencyPerActivity = maxConcurrencyPerActivity;
+    }
+
+    /**
+     * Runs the task for every item, at most {@code max-concurrency-per-activity} at a time for the same activity.
+     * Results keep the order of the items; if any task fails the first failure is rethrown once all tasks finish.
+     */
+    public <I, R> List<R> gradeAll(String activityId, List<I> items, GradingTask<I, R> task) {
+        ActivityPermits entry = activityPermits.compute(activityId, (id, current) -> {
+            ActivityPermits permitsOfActivity = current == null ? new ActivityPermits(maxConcurrencyPerActivity) : current;
+            permitsOfActivity.users++;
+            return permitsOfActivity;
+        });
+        Semaphore permits = entry.permits;
+        try {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            try {
+                for (I item : items) {
+                    permits.acquire();
+                    // The permit is released by whichever comes first of the task and its cancellation, so a task
+                    // cancelled before it started gives it back too
+                    AtomicBoolean released = new AtomicBoolean();
+                    FutureTask<R> future = new FutureTask<R>(() -> {
+                        boolean ownsPermit = released.compareAndSet(false, true);
+                        try {
+                            if (globalPermits == null) return task.grade(item);
+                            globalPermits.acquire();
+                            try {
+                                return task.grade(item);
+                            } finally {
+                                globalPermits.release();
+                            }
+                        } finally {
+                            if (ownsPermit) permits.release();
+                        }
+                    }) {
+                        @Override
+                        protected void done() {
+                            if (isCancelled() && released.compareAndSet(false, true)) permits.release();
+                        }
+                    };
+                    try {
+                        executor.execute(future);
+                        futures.add(future);
+                    } catch (RejectedExecutionException e) {
+                        permits.release();
+                        throw e;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new RuntimeException("Interrupted while scheduling grading for activity ID: " + activityId, e);
+            }
+
+            List<R> results = new ArrayList<>(futures.size());
+            Exception failure = null;
+            int failed = 0;
+            for (Future<R> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    throw new RuntimeException("Interrupted while grading activity ID: " + activityId, e);
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    failed++;
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new RuntimeException("Failed to grade " + failed + " of " + items.size()
+                        + " submissions for activity ID: " + activityId, failure);
+            }
+            return results;
+        } finally {
+            // The last run of the activity removes its entry, so the map only holds activities being graded
+            activityPermits.compute(activityId, (id, current) -> current == null || --current.users == 0 ? null : current);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Permits of one activity and the number of gradeAll calls using them; only changed inside compute.
+     */
+    private static class ActivityPermits {
+        private final Semaphore permits;
+        private int users;
+
+        private ActivityPermits(int maxConcurrency) {
+            this.permits = new Semaphore(maxConcurrency);
+        }
+    }
+
+    @FunctionalInterface
+    public interface GradingTask<I, R> {
+        R grade(I item) throws Exception;
+    }
+}
@@ -0,0 +1,356 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingJobDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingRunStudentDTO;
+import org.springframework.ai.openai.samples.helloworld.service.AssessmentManagementService;
+import org.springframework.ai.openai.samples.helloworld.service.GradingJobService;
+import org.springframework.ai.openai.samples.helloworld.service.GradingListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class GradingJobServiceImplement implements GradingJobService {
+    private final AssessmentManagementService assessmentService;
+    private final GradingRunStore runStore;
+    private final ExecutorService jobRunner;
+    private final ExecutorService eventSender;
+    private final Duration retention;
+    private final long streamTimeoutMillis;
+    private final Map<String, GradingJob> jobs = new ConcurrentHashMap<>();
+
+    public GradingJobServiceImplement(
+            AssessmentManagementService assessmentService,
+            GradingRunStore runStore,
+            @Value("${assessment.jobs.max-running:4}") int maxRunningJobs,
+            @Value("${assessment.jobs.retention-minutes:60}") long retentionMinutes,
+            @Value("${assessment.jobs.stream-timeout-minutes:30}") long streamTimeoutMinutes
+    ) {
+        this.assessmentService = assessmentService;
+        this.runStore = runStore;
+        this.jobRunner = Executors.newFixedThreadPool(maxRunningJobs, runnable -> {
+            Thread thread = new Thread(runnable, "grading-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Sends to slow clients happen here, outside the job lock, so they never hold up grading
+        this.eventSender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "grading-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.streamTimeoutMillis = Duration.ofMinutes(streamTimeoutMinutes).toMillis();
+    }
+
+    @Override
+    public GradingJobDTO submit(String activityId, boolean bypassCache) {
+        if (activityId == null || activityId.isBlank()) {
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        }
+        evictFinishedJobs();
+        GradingJob job = new GradingJob(UUID.randomUUID().toString(), activityId, new Date());
+        runStore.save(job.snapshot());
+        jobs.put(job.id, job);
+        jobRunner.execute(() -> run(job, bypassCache, null));
+        return job.snapshot();
+    }
+
+    @Override
+    public GradingJobDTO submit(String activityId, List<String> studentIds, boolean bypassCache) {
+        if (activityId == null || activityId.isBlank()) {
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        }
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new IllegalArgumentException("Student IDs cannot be null or empty.");
+        }
+        evictFinishedJobs();
+        GradingJob job = new GradingJob(UUID.randomUUID().toString(), activityId, new Date());
+        // Queued before the job starts, so a resume grades these students instead of the whole activity
+        runStore.queued(job.id, studentIds);
+        job.total = studentIds.size();
+        runStore.save(job.snapshot());
+        jobs.put(job.id, job);
+        jobRunner.execute(() -> run(job, bypassCache, studentIds));
+        return job.snapshot();
+    }
+
+    @Override
+    public GradingJobDTO resume(String jobId, boolean bypassCache) {
+        if (jobId == null || jobId.isBlank()) {
+            throw new IllegalArgumentException("Job ID cannot be null or empty.");
+        }
+        if (isRunning(jobs.get(jobId))) {
+            throw new IllegalArgumentException("Job ID: " + jobId + " is still running.");
+        }
+        GradingJobDTO run = runStore.getRun(jobId);
+        if (run == null) return null;
+
+        evictFinishedJobs();
+        GradingJob job = new GradingJob(jobId, run.getActivityId(), run.getCreatedAt());
+        // A run stopped before its submissions were listed is started again from the activity
+        List<String> unfinished = run.getTotal() == null ? null : runStore.unfinished(jobId);
+        if (unfinished != null) {
+            job.total = run.getTotal();
+            job.graded = Math.max(run.getTotal() - unfinished.size(), 0);
+        }
+        jobs.compute(jobId, (id, current) -> {
+            if (isRunning(current)) {
+                throw new IllegalArgumentException("Job ID: " + jobId + " is still running.");
+            }
+            return job;
+        });
+        if (unfinished != null && unfinished.isEmpty()) {
+            finish(job, null);
+        } else {
+            jobRunner.execute(() -> run(job, bypassCache, unfinished));
+        }
+        return job.snapshot();
+    }
+
+    @Override
+    public GradingJobDTO getJob(String jobId) {
+        if (jobId == null || jobId.isBlank()) {
+            throw new IllegalArgumentException("Job ID cannot be null or empty.");
+        }
+        GradingJob job = jobs.get(jobId);
+        // Jobs evicted from memory or started before a restart are read back from their persisted run
+        return job == null ? runStore.getRun(jobId) : job.snapshot();
+    }
+
+    @Override
+    public List<GradingRunStudentDTO> getJobStudents(String jobId) {
+        if (jobId == null || jobId.isBlank()) {
+            throw new IllegalArgumentException("Job ID cannot be null or empty.");
+        }
+        if (!jobs.containsKey(jobId) && runStore.getRun(jobId) == null) return null;
+        return runStore.getStudents(jobId);
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        if (jobId == null || jobId.isBlank()) {
+            throw new IllegalArgumentException("Job ID cannot be null or empty.");
+        }
+        GradingJob job = jobs.get(jobId);
+        if (job == null) return null;
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        // Registering and queueing the current state under the job lock keeps events ordered for late subscribers
+        synchronized (job) {
+            GradingJobDTO snapshot = job.snapshot();
+            if (isFinished(snapshot)) {
+                job.outbox.add(() -> {
+                    send(job, emitter, "completed", snapshot);
+                    emitter.complete();
+                });
+            } else {
+                job.emitters.add(emitter);
+                job.outbox.add(() -> send(job, emitter, "progress", snapshot));
+            }
+        }
+        flush(job);
+        return emitter;
+    }
+
+    // Snapshots are saved after the job lock is released, so Firestore latency never holds up subscribers and
+    // progress updates. Only the job's own thread saves them, one after another, so they are stored in order.
+    private void run(GradingJob job, boolean bypassCache, List<String> studentIds) {
+        GradingJobDTO running;
+        synchronized (job) {
+            job.status = "running";
+            running = job.snapshot();
+            publish(job, "progress", running);
+        }
+        persist(() -> runStore.save(running));
+        flush(job);
+        try {
+            GradingListener listener = new GradingListener() {
+                @Override
+                public void onStart(List<String> pendingStudentIds) {
+                    // A resumed job keeps the total of its first run; only this thread sets it
+                    boolean firstRun = job.total == null;
+                    if (firstRun) {
+                        // Fails the job with no total if the queue cannot be checkpointed, so a resume starts over
+                        runStore.queued(job.id, pendingStudentIds);
+                    }
+                    GradingJobDTO started;
+                    synchronized (job) {
+                        if (firstRun) job.total = pendingStudentIds.size();
+                        started = job.snapshot();
+                        publish(job, "progress", started);
+                    }
+                    if (firstRun) persist(() -> runStore.save(started));
+                    flush(job);
+                }
+
+                @Override
+                public void onGrading(String studentId) {
+                    persist(() -> runStore.inFlight(job.id, studentId));
+                }
+
+                @Override
+                public void onGraded(AssessmentDTO assessment) {
+                    persist(() -> runStore.done(job.id, assessment.getId()));
+                    synchronized (job) {
+                        job.graded++;
+                        publish(job, "assessment", assessment);
+                        publish(job, "progress", job.snapshot());
+                    }
+                    flush(job);
+                }
+
+                @Override
+                public void onFailed(String studentId, Exception e) {
+                    persist(() -> runStore.failed(job.id, studentId, e.getMessage()));
+                    synchronized (job) {
+                        job.failed++;
+                        publish(job, "progress", job.snapshot());
+                    }
+                    flush(job);
+                }
+            };
+            List<AssessmentDTO> assessments = studentIds == null
+                    ? assessmentService.generateAssessmentForActivity(job.activityId, bypassCache, listener)
+                    : assessmentService.generateAssessmentForStudents(job.activityId, studentIds, bypassCache, listener);
+            finish(job, assessments == null ? "Activity or course not found" : null);
+        } catch (Exception e) {
+            finish(job, e.getMessage());
+        }
+    }
+
+    private void finish(GradingJob job, String error) {
+        GradingJobDTO finished;
+        synchronized (job) {
+            job.status = error == null ? "completed" : "failed";
+            job.error = error;
+            job.finishedAt = new Date();
+            finished = job.snapshot();
+            publish(job, "completed", finished);
+            List<SseEmitter> emitters = List.copyOf(job.emitters);
+            job.emitters.clear();
+            job.outbox.add(() -> emitters.forEach(SseEmitter::complete));
+        }
+        persist(() -> runStore.save(finished));
+        flush(job);
+    }
+
+    /**
+     * Queues the event for the current subscribers; called under the job lock so events keep the order of the
+     * state changes. Nothing is sent until {@link #flush} runs after the lock is released.
+     */
+    private void publish(GradingJob job, String event, Object data) {
+        List<SseEmitter> emitters = List.copyOf(job.emitters);
+        if (emitters.isEmpty()) return;
+        job.outbox.add(() -> emitters.forEach(emitter -> send(job, emitter, event, data)));
+    }
+
+    private void flush(GradingJob job) {
+        if (!job.outbox.isEmpty()) eventSender.execute(() -> drain(job));
+    }
+
+    private static void drain(GradingJob job) {
+        // A single drainer per job at a time sends the queued events in order
+        while (!job.outbox.isEmpty() && job.draining.compareAndSet(false, true)) {
+            try {
+                Runnable delivery;
+                while ((delivery = job.outbox.poll()) != null) {
+                    try {
+                        delivery.run();
+                    } catch (RuntimeException e) {
+                        // A failing client must not stop the deliveries to the others
+                    }
+                }
+            } finally {
+                job.draining.set(false);
+            }
+        }
+    }
+
+    private static void send(GradingJob job, SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; stop streaming to it without affecting the job
+            job.emitters.remove(emitter);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        Date threshold = new Date(System.currentTimeMillis() - retention.toMillis());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.before(threshold));
+    }
+
+    private static void persist(Runnable write) {
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            // The checkpoint is lost but grading goes on; a resume regrades at most this submission
+        }
+    }
+
+    private static boolean isRunning(GradingJob job) {
+        return job != null && job.finishedAt == null;
+    }
+
+    private static boolean isFinished(GradingJobDTO job) {
+        return "completed".equals(job.getStatus()) || "failed".equals(job.getStatus());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        eventSender.shutdownNow();
+    }
+
+    private static class GradingJob {
+        private final String id;
+        private final String activityId;
+        private final Date createdAt;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final Queue<Runnable> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private String status = "queued";
+        private Integer total;
+        private int graded;
+        private int failed;
+        private String error;
+        private volatile Date finishedAt;
+
+        private GradingJob(String id, String activityId, Date createdAt) {
+            this.id = id;
+            this.activityId = activityId;
+            this.createdAt = createdAt;
+        }
+
+        private synchronized GradingJobDTO snapshot() {
+            GradingJobDTO dto = new GradingJobDTO();
+            dto.setId(id);
+            dto.setActivityId(activityId);
+            dto.setStatus(status);
+            dto.setTotal(total);
+            dto.setGraded(graded);
+            dto.setFailed(failed);
+            dto.setPending(total == null ? 0 : Math.max(total - graded - failed, 0));
+            dto.setError(error);
+            dto.setCreatedAt(createdAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
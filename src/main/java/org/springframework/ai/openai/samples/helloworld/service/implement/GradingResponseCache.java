@@ -0,0 +1,182 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Grading responses keyed by request, in a bounded in-memory cache and one file per key on disk. Entries expire
+ * {@code assessment.response-cache.ttl-days} after they were written, and the disk tier keeps at most
+ * {@code assessment.response-cache.disk-max-entries} files, deleting the oldest beyond that.
+ */
+@Component
+public class GradingResponseCache {
+    // Part of every key; bumped when what is stored changes, so older entries are never read and age out.
+    // 2: only responses that parse into grades are stored
+    private static final String KEY_VERSION = "2";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Duration ttl;
+    private final Cache<String, String> memory;
+    // Write time of every file on disk, oldest first; guarded by its own lock
+    private final Map<String, Long> diskIndex;
+
+    public GradingResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${assessment.response-cache.enabled:true}") boolean enabled,
+            @Value("${assessment.response-cache.directory:${java.io.tmpdir}/teachersai/grading-responses}") String directory,
+            @Value("${assessment.response-cache.memory-size:1000}") long memorySize,
+            @Value("${assessment.response-cache.disk-max-entries:10000}") int diskMaxEntries,
+            @Value("${assessment.response-cache.ttl-days:30}") long ttlDays
+    ) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.ttl = Duration.ofDays(ttlDays);
+        this.memory = Caffeine.newBuilder().maximumSize(memorySize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "grading-responses");
+        this.diskIndex = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= diskMaxEntries) return false;
+                deleteQuietly(file(eldest.getKey()));
+                return true;
+            }
+        };
+        if (enabled) loadDiskIndex();
+    }
+
+    /**
+     * Stable key of a grading request: the rendered prompt (which already embeds the JSON schema)
+     * plus every model option that changes the completion.
+     */
+    public String key(String prompt, OpenAiChatOptions options) {
+        String request = String.join("\u0000",
+                KEY_VERSION,
+                String.valueOf(options.getModel()),
+                String.valueOf(options.getTemperature()),
+                String.valueOf(options.getTopP()),
+                String.valueOf(options.getMaxTokens()),
+                options.getResponseFormat() == null ? "null" : String.valueOf(options.getResponseFormat().type()),
+                prompt);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) return Optional.empty();
+        String content = memory.getIfPresent(key);
+        if (content != null) return Optional.of(content);
+        Long written;
+        synchronized (diskIndex) {
+            written = diskIndex.get(key);
+            if (written != null && isExpired(written)) {
+                diskIndex.remove(key);
+                deleteQuietly(file(key));
+                written = null;
+            }
+        }
+        if (written == null) return Optional.empty();
+        try {
+            content = Files.readString(file(key), StandardCharsets.UTF_8);
+            memory.put(key, content);
+            return Optional.of(content);
+        } catch (IOException e) {
+            return Optional.empty(); // A damaged entry is treated as a miss and rewritten after grading
+        }
+    }
+
+    /**
+     * Only responses that parsed into grades should be stored, so a malformed completion is regraded next time
+     * instead of being replayed.
+     */
+    public void put(String key, String content) {
+        if (!enabled || content == null) return;
+        memory.put(key, content);
+        Path temporary = null;
+        try {
+            // Write to a temporary file first so concurrent readers never see a half-written response
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temporary, content, StandardCharsets.UTF_8);
+            Files.move(temporary, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (diskIndex) {
+                diskIndex.remove(key); // Re-inserted as the newest entry
+                diskIndex.put(key, System.currentTimeMillis());
+            }
+        } catch (IOException e) {
+            // The in-memory entry is still usable; losing the disk copy only costs a future regrade
+        } finally {
+            deleteQuietly(temporary); // Already moved on success; left over when writing or moving failed
+        }
+    }
+
+    private void loadDiskIndex() {
+        try {
+            Files.createDirectories(directory);
+            List<Map.Entry<String, Long>> entries = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (!name.endsWith(".json")) {
+                        if (name.endsWith(".tmp")) deleteQuietly(file); // Left behind by a process that stopped while writing
+                        continue;
+                    }
+                    long written = Files.getLastModifiedTime(file).toMillis();
+                    if (isExpired(written)) {
+                        deleteQuietly(file);
+                    } else {
+                        entries.add(Map.entry(name.substring(0, name.length() - ".json".length()), written));
+                    }
+                }
+            }
+            entries.sort(Map.Entry.comparingByValue());
+            synchronized (diskIndex) {
+                entries.forEach(entry -> diskIndex.put(entry.getKey(), entry.getValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open grading response cache directory: " + directory, e);
+        }
+    }
+
+    private boolean isExpired(long written) {
+        return System.currentTimeMillis() - written > ttl.toMillis();
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + ".json");
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Retried when the entry expires or is evicted again
+        }
+    }
+}
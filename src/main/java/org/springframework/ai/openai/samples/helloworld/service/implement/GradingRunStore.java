@@ -0,0 +1,166 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.SetOptions;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingJobDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.GradingRunStudentDTO;
+import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Persists grading jobs as {@code gradingRuns/{runId}} with one {@code students/{studentId}} document per
+ * submission (queued, inFlight, done or failed, with attempts and last error), so a stopped or partly failed
+ * run can be resumed from the students that did not finish.
+ */
+@Component
+public class GradingRunStore {
+    private static final List<String> UNFINISHED_STATES = List.of("queued", "inFlight", "failed");
+
+    private final FirebaseInit firebase;
+    private final FirestoreBulkWriter bulkWriter;
+    private final FirestoreMetrics firestoreMetrics;
+
+    public GradingRunStore(FirebaseInit firebase, FirestoreBulkWriter bulkWriter, FirestoreMetrics firestoreMetrics) {
+        this.firebase = firebase;
+        this.bulkWriter = bulkWriter;
+        this.firestoreMetrics = firestoreMetrics;
+    }
+
+    public void save(GradingJobDTO run) {
+        write(firestoreMetrics.time("gradingRuns.set", getDocumentReference(run.getId()).set(getDocData(run))), "Failed to save grading run ID: " + run.getId());
+    }
+
+    public GradingJobDTO getRun(String runId) {
+        try {
+            DocumentSnapshot document = firestoreMetrics.time("gradingRuns.get", getDocumentReference(runId).get()).get();
+            if (!document.exists()) return null;
+            GradingJobDTO run = document.toObject(GradingJobDTO.class);
+            if (run != null) run.setId(document.getId());
+            return run;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch grading run ID: " + runId, e);
+        }
+    }
+
+    public void queued(String runId, List<String> studentIds) {
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        Date now = new Date();
+        for (String studentId : studentIds) {
+            Map<String, Object> docData = new HashMap<>();
+            docData.put("studentId", studentId);
+            docData.put("state", "queued");
+            docData.put("attempts", 0);
+            docData.put("updatedAt", now);
+            documents.put(studentId, docData);
+        }
+        List<String> failed = bulkWriter.setAll(getStudentsCollection(runId), documents);
+        if (!failed.isEmpty()) {
+            throw new RuntimeException("Failed to record " + failed.size() + " queued students for grading run ID: " + runId);
+        }
+    }
+
+    public void inFlight(String runId, String studentId) {
+        Map<String, Object> docData = new HashMap<>();
+        docData.put("studentId", studentId);
+        docData.put("state", "inFlight");
+        docData.put("attempts", FieldValue.increment(1));
+        docData.put("error", FieldValue.delete());
+        docData.put("updatedAt", new Date());
+        updateStudent(runId, studentId, docData);
+    }
+
+    public void done(String runId, String studentId) {
+        Map<String, Object> docData = new HashMap<>();
+        docData.put("state", "done");
+        docData.put("updatedAt", new Date());
+        updateStudent(runId, studentId, docData);
+    }
+
+    public void failed(String runId, String studentId, String error) {
+        Map<String, Object> docData = new HashMap<>();
+        docData.put("state", "failed");
+        docData.put("error", error);
+        docData.put("updatedAt", new Date());
+        updateStudent(runId, studentId, docData);
+    }
+
+    /**
+     * IDs of the students that were queued, in flight when the run stopped, or failed.
+     */
+    public List<String> unfinished(String runId) {
+        try {
+            List<String> studentIds = new ArrayList<>();
+            for (DocumentSnapshot doc : firestoreMetrics.time("gradingRunStudents.query",
+                    getStudentsCollection(runId).whereIn("state", UNFINISHED_STATES).select("state").get()).get().getDocuments()) {
+                studentIds.add(doc.getId());
+            }
+            return studentIds;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch unfinished students for grading run ID: " + runId, e);
+        }
+    }
+
+    public List<GradingRunStudentDTO> getStudents(String runId) {
+        try {
+            List<GradingRunStudentDTO> students = new ArrayList<>();
+            for (DocumentSnapshot doc : firestoreMetrics.time("gradingRunStudents.query",
+                    getStudentsCollection(runId).get()).get().getDocuments()) {
+                GradingRunStudentDTO student = doc.toObject(GradingRunStudentDTO.class);
+                if (student != null) {
+                    student.setStudentId(doc.getId());
+                    students.add(student);
+                }
+            }
+            return students;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch students for grading run ID: " + runId, e);
+        }
+    }
+
+    private void updateStudent(String runId, String studentId, Map<String, Object> docData) {
+        // Merge keeps the attempts and error of previous runs when the document already exists
+        write(firestoreMetrics.time("gradingRunStudents.set",
+                        getStudentsCollection(runId).document(studentId).set(docData, SetOptions.merge())),
+                "Failed to update student ID: " + studentId + " of grading run ID: " + runId);
+    }
+
+    private static void write(ApiFuture<?> future, String message) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(message, e);
+        } catch (Exception e) {
+            throw new RuntimeException(message, e);
+        }
+    }
+
+    private DocumentReference getDocumentReference(String runId) {
+        return firebase.getFirestore().collection("gradingRuns").document(runId);
+    }
+
+    private CollectionReference getStudentsCollection(String runId) {
+        return getDocumentReference(runId).collection("students");
+    }
+
+    private static Map<String, Object> getDocData(GradingJobDTO run) {
+        Map<String, Object> docData = new HashMap<>();
+        docData.put("id", run.getId());
+        docData.put("activityId", run.getActivityId());
+        docData.put("status", run.getStatus());
+        docData.put("total", run.getTotal());
+        docData.put("graded", run.getGraded());
+        docData.put("pending", run.getPending());
+        docData.put("failed", run.getFailed());
+        docData.put("error", run.getError());
+        docData.put("createdAt", run.getCreatedAt());
+        docData.put("finishedAt", run.getFinishedAt());
+        return docData;
+    }
+}
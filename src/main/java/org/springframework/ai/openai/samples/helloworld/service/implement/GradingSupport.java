@@ -0,0 +1,246 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.ai.openai.samples.helloworld.dto.ActivityDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.CourseDTO;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prompt rendering, response parsing and document mapping used on every graded submission.
+ */
+final class GradingSupport {
+    // Everything but the submission depends only on the course and activity, so every student of an activity shares
+    // the same prompt prefix and OpenAI can serve it from its prompt cache; the submission goes last, in its own message
+    private static final String PROMPT_TEMPLATE = "Eres el docente de la asignatura de: {0}, quién tiene el rol de revisor de tareas. " +
+            "Dentro de la unidad temática: {1}, se plantea la actividad: {2}, que tiene como objetivo llegar a los siguientes resultados de aprendizaje: {3}. " +
+            "El planteamiento de la tarea es el siguiente: {4}. " +
+            "Entrégame el resultado del análisis de la respuesta del estudiante, en base a la siguiente rúbrica: {5}, " +
+            "adicionalmente a este análisis incluye una calificación que este dentro del rango especificado dentro de la rúbrica." +
+            "Proporciona un análisis específico para cada componente de la rúbrica. " +
+            "Incluye observaciones claras y completas, con ejemplos específicos para respaldar tu evaluación. " +
+            "Proporciona recomendaciones detalladas, incluso para componentes correctamente realizados, y justifica la calificación asignada dentro del rango de la rúbrica." +
+            "verbosity tiene 3 valores: 'low' ofrecer Breve retroalimentación con observaciones generales; " +
+            "'medium' ofrece Retroalimentación con observaciones y ejemplos clave. " +
+            "'high' ofrece Retroalimentación detallada con observaciones completas y ejemplos específicos. ";
+
+    private static final String SUBMISSION_TEMPLATE = "La entrega que ha realizado el estudiante es la siguiente: {0}. ";
+
+    private static final String JSON_SCHEMA = """
+            { "type": "json_object",
+                "properties": {
+                    "componentsGrades": {
+                        "item component of rubric evaluation": {
+                            "type": "json_object",
+                            "properties": {
+                                "content": {"type": "string", "verbosity": "medium", "feedbackType": "constructive"},
+                                "grade": {"type": "number", "strictnessLevel": "lenient"},
+                                "maxGrade": {"type": "number"}
+                            },
+                            "required": ["content", "grade", "maxGrade"],
+                            "additionalProperties": false
+                        }
+                    },
+                    "globalGrade": {"type": "number"},
+                },
+                "required": ["componentsGrades", "globalGrade"],
+                "strictnessGradesLevel": "moderate"
+                "additionalProperties": false }
+            """;
+    /*
+    "strictnessLevel" = 'lenient' | 'moderate' | 'strict'; // Nivel de exigencia
+    "feedbackType": 'constructive' | 'neutral' | 'detailed'; // Tipo de retroalimentación
+     */
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private GradingSupport() {
+    }
+
+    /**
+     * Grading prompt split into the per-activity system message and the per-student user message.
+     */
+    record GradingPrompt(String system, String user) {
+        GradingPrompt withUser(String suffix) {
+            return new GradingPrompt(system, user + suffix);
+        }
+    }
+
+    static GradingPrompt getFormat(CourseDTO course, ActivityDTO activity, AssessmentDTO assessment) {
+        String system = MessageFormat.format(
+                PROMPT_TEMPLATE,
+                course.getSubject(),
+                activity.getUnitTheme(),
+                activity.getName(),
+                activity.getExpectedLearningOutcomes(),
+                activity.getDidacticStrategies(),
+                activity.getAssessmentRubric()
+        ) + " El formato de la Respuesta debe ser con la siguiente estructura:" + JSON_SCHEMA;
+        return new GradingPrompt(system, MessageFormat.format(SUBMISSION_TEMPLATE, assessment.getSubmission()));
+    }
+
+    /**
+     * Reads globalGrade and every componentsGrades entry in one streaming pass. Both the shape that wraps the
+     * values in "properties" (as in JSON_SCHEMA) and the flat shape are accepted, at the root and per component.
+     */
+    static ParsedGrades parseGrades(String response) {
+        if (response == null || response.isBlank()) return ParsedGrades.EMPTY;
+        try (JsonParser parser = JSON_FACTORY.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return ParsedGrades.EMPTY;
+            ParsedGrades.Builder grades = new ParsedGrades.Builder();
+            readGrades(parser, grades);
+            return grades.build();
+        } catch (IOException e) {
+            return ParsedGrades.EMPTY;
+        }
+    }
+
+    private static void readGrades(JsonParser parser, ParsedGrades.Builder grades) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "properties" -> {
+                    if (value == JsonToken.START_OBJECT) readGrades(parser, grades);
+                    else parser.skipChildren();
+                }
+                case "globalGrade" -> grades.globalGrade = readNumber(parser);
+                case "componentsGrades" -> {
+                    if (value == JsonToken.START_OBJECT) readComponents(parser, grades.componentsGrades);
+                    else parser.skipChildren();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readComponents(JsonParser parser, Map<String, AssessmentDTO.ComponentGrade> componentsGrades)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String componentName = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            AssessmentDTO.ComponentGrade componentGrade = new AssessmentDTO.ComponentGrade();
+            readComponent(parser, componentGrade);
+            componentsGrades.put(componentName, componentGrade);
+        }
+    }
+
+    private static void readComponent(JsonParser parser, AssessmentDTO.ComponentGrade componentGrade) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "properties" -> {
+                    if (value == JsonToken.START_OBJECT) readComponent(parser, componentGrade);
+                    else parser.skipChildren();
+                }
+                case "content" -> {
+                    if (value.isScalarValue()) componentGrade.setContent(parser.getValueAsString());
+                    else parser.skipChildren();
+                }
+                case "grade" -> componentGrade.setGrade(readNumber(parser));
+                case "maxGrade" -> componentGrade.setMaxGrade(readNumber(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static Double readNumber(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText().trim().replace(',', '.'));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * A submission without an AI generation yet; stored as {@code needsGrading} so bulk grading can query
+     * only these documents.
+     */
+    static boolean needsGrading(AssessmentDTO assessment) {
+        return assessment.getSubmission() != null
+                && (assessment.getAiAssessment() == null || assessment.getAiAssessment().getAiGeneration() == null);
+    }
+
+    /**
+     * needsGrading of a document written before the flag existed, told from its status and grade alone so the
+     * submission and the feedback texts are not downloaded. A graded response without a parseable global grade is
+     * graded again.
+     */
+    static boolean needsGrading(String status, Double globalGrade) {
+        return !"missing".equals(status) && globalGrade == null;
+    }
+
+    static Map<String, Object> getDocData(AssessmentDTO assessment) {
+        Map<String, Object> docData = new HashMap<>();
+        docData.put("id", assessment.getId());
+        docData.put("submission", assessment.getSubmission());
+        docData.put("fileType", assessment.getFileType());
+        docData.put("status", assessment.getStatus());
+        docData.put("feedback", assessment.getFeedback());
+        docData.put("needsGrading", needsGrading(assessment));
+
+        // Manejar campos opcionales: AIAssessment y ReAssessment
+        if (assessment.getAiAssessment() != null) {
+            Map<String, Object> aiAssessmentData = new HashMap<>();
+            AssessmentDTO.AIAssessment ai = assessment.getAiAssessment();
+            aiAssessmentData.put("aiGeneration", ai.getAiGeneration());
+            aiAssessmentData.put("generationRating", ai.getGenerationRating());
+            aiAssessmentData.put("globalGrade", ai.getGlobalGrade());
+
+            if (ai.getComponentsGrades() != null) {
+                aiAssessmentData.put("componentsGrades", ai.getComponentsGrades());
+            }
+
+            docData.put("aiAssessment", aiAssessmentData);
+        }
+
+        if (assessment.getReAssessment() != null) {
+            Map<String, Object> reAssessmentData = new HashMap<>();
+            AssessmentDTO.ReAssessment re = assessment.getReAssessment();
+            reAssessmentData.put("aiGeneration", re.getAiGeneration());
+            reAssessmentData.put("generationRating", re.getGenerationRating());
+            reAssessmentData.put("teacherComment", re.getTeacherComment());
+            reAssessmentData.put("globalGrade", re.getGlobalGrade());
+
+            if (re.getComponentsGrades() != null) {
+                reAssessmentData.put("componentsGrades", re.getComponentsGrades());
+            }
+
+            docData.put("reAssessment", reAssessmentData);
+        }
+
+        return docData;
+    }
+
+    record ParsedGrades(Double globalGrade, Map<String, AssessmentDTO.ComponentGrade> componentsGrades) {
+        static final ParsedGrades EMPTY = new ParsedGrades(null, null);
+
+        private static final class Builder {
+            private Double globalGrade;
+            private final Map<String, AssessmentDTO.ComponentGrade> componentsGrades = new LinkedHashMap<>();
+
+            private ParsedGrades build() {
+                return new ParsedGrades(globalGrade, componentsGrades);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers of already processed images keyed by the kind of answer (description or transcription) and the image's
+ * 256-bit difference hash, so a photo of a worksheet someone else already uploaded reuses the stored answer instead
+ * of a new vision call. Images match when their hashes differ in at most {@code translator.image-cache.max-distance}
+ * bits; answers read with {@link #getExact} are stored under a 256-bit content hash and only match the same bytes.
+ * Entries live in a bounded in-memory cache and, when the disk tier is enabled, in one file per hash that survives
+ * restarts; the disk tier keeps at most {@code translator.image-cache.disk-max-entries} files and deletes the least
+ * recently used ones beyond that.
+ */
+@Component
+public class ImageDescriptionCache {
+    private final boolean enabled;
+    private final int maxDistance;
+    private final Path directory;
+    private final Cache<String, Entry> memory;
+    // Hashes of the entries on disk in access order, so the tier is searched without reading files and the least
+    // recently used file is the one deleted when the tier is full; guarded by its own lock
+    private final Map<String, long[]> diskIndex;
+    private final MeterRegistry meterRegistry;
+
+    private record Entry(long[] hash, String description) {
+    }
+
+    public ImageDescriptionCache(
+            MeterRegistry meterRegistry,
+            @Value("${translator.image-cache.enabled:true}") boolean enabled,
+            @Value("${translator.image-cache.max-distance:10}") int maxDistance,
+            @Value("${translator.image-cache.memory-size:1000}") long memorySize,
+            @Value("${translator.image-cache.disk-enabled:false}") boolean diskEnabled,
+            @Value("${translator.image-cache.disk-max-entries:10000}") int diskMaxEntries,
+            @Value("${translator.image-cache.directory:${java.io.tmpdir}/teachersai/image-descriptions}") String directory
+    ) {
+        this.enabled = enabled;
+        this.diskIndex = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                if (size() <= diskMaxEntries) return false;
+                deleteFile(eldest.getKey());
+                return true;
+            }
+        };
+        this.maxDistance = maxDistance;
+        this.directory = enabled && diskEnabled ? Path.of(directory) : null;
+        this.meterRegistry = meterRegistry;
+        this.memory = Caffeine.newBuilder().maximumSize(memorySize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "image-descriptions");
+        if (this.directory != null) loadDiskIndex();
+    }
+
+    /**
+     * Answer of the same or a near-identical image.
+     */
+    public Optional<String> get(String kind, long[] hash) {
+        return get(kind, hash, true);
+    }
+
+    /**
+     * Answer stored under exactly the same hash, never a near match. For answers that must not be shared between
+     * near-identical images, whose hash is then a content hash rather than a difference hash.
+     */
+    public Optional<String> getExact(String kind, long[] hash) {
+        return get(kind, hash, false);
+    }
+
+    private Optional<String> get(String kind, long[] hash, boolean similar) {
+        if (!enabled) return Optional.empty();
+        String key = key(kind, hash);
+        Entry entry = memory.getIfPresent(key);
+        if (entry != null) return hit("exact", entry.description());
+        if (!similar) {
+            if (directory == null) return miss();
+            long[] stored;
+            synchronized (diskIndex) {
+                stored = diskIndex.get(key);
+            }
+            return stored == null ? miss() : readDisk(key, stored);
+        }
+
+        // Nearest stored hash within the threshold; the memory tier is bounded, so a linear scan stays cheap
+        String prefix = kind + "-";
+        String nearestKey = null;
+        int nearestDistance = maxDistance + 1;
+        for (Map.Entry<String, Entry> candidate : memory.asMap().entrySet()) {
+            if (!candidate.getKey().startsWith(prefix)) continue;
+            int distance = distance(hash, candidate.getValue().hash());
+            if (distance < nearestDistance) {
+                nearestKey = candidate.getKey();
+                nearestDistance = distance;
+            }
+        }
+        if (nearestKey != null) {
+            entry = memory.getIfPresent(nearestKey); // Counts as a use for eviction
+            if (entry != null) return hit("similar", entry.description());
+        }
+
+        if (directory == null) return miss();
+        nearestKey = null;
+        nearestDistance = maxDistance + 1;
+        long[] nearestHash = null;
+        synchronized (diskIndex) {
+            // At most disk-max-entries hashes of 32 bytes; a full scan of the default 10000 takes microseconds
+            for (Map.Entry<String, long[]> candidate : diskIndex.entrySet()) {
+                if (!candidate.getKey().startsWith(prefix)) continue;
+                int distance = distance(hash, candidate.getValue());
+                if (distance < nearestDistance) {
+                    nearestKey = candidate.getKey();
+                    nearestHash = candidate.getValue();
+                    nearestDistance = distance;
+                }
+            }
+            if (nearestKey != null) diskIndex.get(nearestKey); // Counts as a use for eviction
+        }
+        if (nearestKey == null) return miss();
+        return readDisk(nearestKey, nearestHash);
+    }
+
+    private Optional<String> readDisk(String key, long[] hash) {
+        try {
+            String description = Files.readString(directory.resolve(key + ".txt"), StandardCharsets.UTF_8);
+            memory.put(key, new Entry(hash, description));
+            return hit("disk", description);
+        } catch (IOException e) {
+            // A missing or damaged entry is treated as a miss and rewritten
+            synchronized (diskIndex) {
+                diskIndex.remove(key);
+            }
+            deleteFile(key);
+            return miss();
+        }
+    }
+
+    public void put(String kind, long[] hash, String description) {
+        if (!enabled || description == null) return;
+        String key = key(kind, hash);
+        memory.put(key, new Entry(hash.clone(), description));
+        if (directory == null) return;
+        Path temporary = null;
+        try {
+            // Write to a temporary file first so concurrent readers never see a half-written description
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temporary, description, StandardCharsets.UTF_8);
+            Files.move(temporary, directory.resolve(key + ".txt"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (diskIndex) {
+                diskIndex.put(key, hash.clone());
+            }
+        } catch (IOException e) {
+            // The in-memory entry is still usable; losing the disk copy only costs a future vision call
+        } finally {
+            deleteQuietly(temporary); // Already moved on success; left over when writing or moving failed
+        }
+    }
+
+    private void deleteFile(String key) {
+        deleteQuietly(directory.resolve(key + ".txt"));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Retried when the entry is evicted or rewritten again
+        }
+    }
+
+    static int distance(long[] a, long[] b) {
+        int distance = 0;
+        for (int i = 0; i < a.length; i++) distance += Long.bitCount(a[i] ^ b[i]);
+        return distance;
+    }
+
+    private static String key(String kind, long[] hash) {
+        StringBuilder key = new StringBuilder(kind.length() + 1 + hash.length * 16).append(kind).append('-');
+        for (long word : hash) key.append(HexFormat.of().toHexDigits(word));
+        return key.toString();
+    }
+
+    private static long[] parseHash(String hex) {
+        long[] hash = new long[hex.length() / 16];
+        for (int i = 0; i < hash.length; i++) {
+            hash[i] = HexFormat.fromHexDigitsToLong(hex, i * 16, i * 16 + 16);
+        }
+        return hash;
+    }
+
+    private void loadDiskIndex() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        deleteQuietly(file); // Left behind by a process that stopped while writing
+                    } else if (name.endsWith(".txt")) {
+                        entries.add(file);
+                    }
+                }
+            }
+            // Oldest first, so the index starts in least recently written order and a smaller limit trims the oldest
+            entries.sort(Comparator.comparing(ImageDescriptionCache::lastModified));
+            synchronized (diskIndex) {
+                for (Path file : entries) {
+                    // <kind>-<64 hex digits>.txt
+                    String key = file.getFileName().toString().replace(".txt", "");
+                    String hex = key.substring(key.lastIndexOf('-') + 1);
+                    if (key.contains("-") && hex.length() == 64 && hex.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                        diskIndex.put(key, parseHash(hex));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open image description cache directory: " + directory, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Optional<String> hit(String tier, String description) {
+        lookups(tier).increment();
+        return Optional.of(description);
+    }
+
+    private Optional<String> miss() {
+        lookups("miss").increment();
+        return Optional.empty();
+    }
+
+    private Counter lookups(String result) {
+        return Counter.builder("image.descriptions.lookups")
+                .description("Perceptual cache lookups of imageToText by result (exact, similar, disk or miss)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
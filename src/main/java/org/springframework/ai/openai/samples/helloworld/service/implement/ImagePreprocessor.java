@@ -0,0 +1,333 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Prepares uploaded images for gpt-4o vision: the format is sniffed from the content, the image is decoded once
+ * (subsampled while decoding when it is much larger than needed), rotated upright, scaled to fit the vision token
+ * budget and re-encoded as JPEG without metadata, so EXIF data never leaves the server.
+ */
+@Component
+public class ImagePreprocessor {
+    private static final Map<String, MimeType> MIME_TYPES = Map.of(
+            "jpeg", MimeTypeUtils.IMAGE_JPEG,
+            "png", MimeTypeUtils.IMAGE_PNG,
+            "gif", MimeTypeUtils.IMAGE_GIF,
+            "bmp", MimeType.valueOf("image/bmp")
+    );
+    // gpt-4o high detail: fit in 2048x2048, shortest side at most 768, then 170 tokens per 512px tile plus 85
+    private static final int MAX_LONG_SIDE = 2048;
+    private static final int MAX_SHORT_SIDE = 768;
+    private static final int TILE_SIZE = 512;
+    private static final int TOKENS_PER_TILE = 170;
+    private static final int BASE_TOKENS = 85;
+    private static final MimeType PDF = MimeType.valueOf("application/pdf");
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final float PDF_MAX_DPI = 150;
+    private static final int HASH_ROWS = 16;
+    private static final int HASH_COLUMNS = 16;
+
+    private final int maxTokens;
+    private final float jpegQuality;
+
+    public ImagePreprocessor(
+            @Value("${translator.image.max-tokens:765}") int maxTokens,
+            @Value("${translator.image.jpeg-quality:0.85}") float jpegQuality
+    ) {
+        if (maxTokens < BASE_TOKENS + TOKENS_PER_TILE) {
+            throw new IllegalArgumentException("The image token budget must allow at least one tile");
+        }
+        this.maxTokens = maxTokens;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Image ready to be sent: JPEG bytes, the sniffed type of the upload, the vision tokens it will cost and
+     * its 256-bit difference hash.
+     */
+    public record PreparedImage(byte[] content, MimeType mimeType, MimeType originalMimeType, int width, int height,
+                                int tokens, long[] hash) {
+    }
+
+    public PreparedImage prepare(InputStream upload) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(upload)) {
+            if (input == null) throw new IllegalArgumentException("The file could not be read as an image");
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format (expected JPEG, PNG, GIF or BMP)");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                String format = reader.getFormatName().toLowerCase();
+                MimeType originalMimeType = MIME_TYPES.getOrDefault(format, MimeTypeUtils.APPLICATION_OCTET_STREAM);
+                int orientation = "jpeg".equals(format) ? exifOrientation(reader.getImageMetadata(0)) : 1;
+                boolean swapsSides = orientation >= 5;
+                int sourceWidth = swapsSides ? reader.getHeight(0) : reader.getWidth(0);
+                int sourceHeight = swapsSides ? reader.getWidth(0) : reader.getHeight(0);
+
+                double scale = targetScale(sourceWidth, sourceHeight);
+                int width = Math.max(1, (int) Math.round(sourceWidth * scale));
+                int height = Math.max(1, (int) Math.round(sourceHeight * scale));
+
+                // Decoding every second or fourth pixel keeps a 12 MP photo from being held at full resolution
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, (int) Math.floor(1 / scale / 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                return finish(render(decoded, orientation, width, height), originalMimeType);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Renders each page of a PDF and prepares it like an uploaded image, one page at a time, handing every page
+     * to {@code onPage} as soon as it is ready so callers can start on it while later pages render.
+     */
+    public void preparePdf(InputStream upload, int maxPages, Consumer<PreparedImage> onPage) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(upload))) {
+            int pages = document.getNumberOfPages();
+            if (pages > maxPages) {
+                throw new IllegalArgumentException("The PDF has " + pages + " pages, more than the " + maxPages + " allowed");
+            }
+            PDFRenderer renderer = new PDFRenderer(document);
+            for (int i = 0; i < pages; i++) {
+                PDRectangle box = document.getPage(i).getCropBox();
+                // Render just large enough for the vision limits instead of at print resolution
+                float dpi = Math.min(PDF_MAX_DPI, MAX_LONG_SIDE * 72f / Math.max(box.getWidth(), box.getHeight()));
+                BufferedImage page = renderer.renderImageWithDPI(i, dpi, ImageType.RGB);
+                double scale = targetScale(page.getWidth(), page.getHeight());
+                int width = Math.max(1, (int) Math.round(page.getWidth() * scale));
+                int height = Math.max(1, (int) Math.round(page.getHeight() * scale));
+                onPage.accept(finish(render(page, 1, width, height), PDF));
+            }
+        } catch (InvalidPasswordException e) {
+            throw new IllegalArgumentException("Password protected PDFs are not supported");
+        }
+    }
+
+    /**
+     * Whether the upload starts with the PDF signature; the stream must support mark and is left unread.
+     */
+    static boolean isPdf(InputStream upload) throws IOException {
+        upload.mark(PDF_SIGNATURE.length);
+        byte[] header = upload.readNBytes(PDF_SIGNATURE.length);
+        upload.reset();
+        return Arrays.equals(header, PDF_SIGNATURE);
+    }
+
+    private PreparedImage finish(BufferedImage prepared, MimeType originalMimeType) throws IOException {
+        return new PreparedImage(encodeJpeg(prepared), MimeTypeUtils.IMAGE_JPEG, originalMimeType,
+                prepared.getWidth(), prepared.getHeight(), tokens(prepared.getWidth(), prepared.getHeight()),
+                differenceHash(prepared));
+    }
+
+    /**
+     * Vision tokens of an image already scaled to the high detail limits.
+     */
+    static int tokens(int width, int height) {
+        int tiles = ((width + TILE_SIZE - 1) / TILE_SIZE) * ((height + TILE_SIZE - 1) / TILE_SIZE);
+        return BASE_TOKENS + TOKENS_PER_TILE * tiles;
+    }
+
+    /**
+     * dHash on a 17x16 grid of mean luminance: one bit per pair of horizontal neighbours, set when the right cell
+     * is brighter. Recompression, rescaling and small lighting changes flip few bits; a different page flips many.
+     */
+    static long[] differenceHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[][] sums = new double[HASH_ROWS][HASH_COLUMNS + 1];
+        int[][] counts = new int[HASH_ROWS][HASH_COLUMNS + 1];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            int cellRow = y * HASH_ROWS / height;
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cellColumn = x * (HASH_COLUMNS + 1) / width;
+                sums[cellRow][cellColumn] += 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                counts[cellRow][cellColumn]++;
+            }
+        }
+        long[] hash = new long[HASH_ROWS * HASH_COLUMNS / 64];
+        for (int r = 0; r < HASH_ROWS; r++) {
+            for (int c = 0; c < HASH_COLUMNS; c++) {
+                double left = counts[r][c] == 0 ? 0 : sums[r][c] / counts[r][c];
+                double right = counts[r][c + 1] == 0 ? 0 : sums[r][c + 1] / counts[r][c + 1];
+                if (right > left) {
+                    int bit = r * HASH_COLUMNS + c;
+                    hash[bit / 64] |= 1L << (bit % 64);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * SHA-256 of the bytes as four words, the shape of {@link #differenceHash}, for lookups that must only match
+     * the very same image.
+     */
+    static long[] contentHash(byte[] bytes) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes));
+            long[] hash = new long[4];
+            for (int i = 0; i < hash.length; i++) hash[i] = digest.getLong();
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private double targetScale(int width, int height) {
+        int longSide = Math.max(width, height);
+        int shortSide = Math.min(width, height);
+        double scale = Math.min(1.0, Math.min((double) MAX_LONG_SIDE / longSide, (double) MAX_SHORT_SIDE / shortSide));
+        while (tokens((int) Math.round(width * scale), (int) Math.round(height * scale)) > maxTokens) {
+            scale *= 0.95;
+        }
+        return scale;
+    }
+
+    private static BufferedImage render(BufferedImage source, int orientation, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE); // Transparent areas would turn black in JPEG
+            graphics.fillRect(0, 0, width, height);
+            graphics.transform(orientationTransform(orientation, width, height));
+            boolean swapsSides = orientation >= 5;
+            graphics.drawImage(source, 0, 0, swapsSides ? height : width, swapsSides ? width : height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Transform that draws the stored pixels upright for an EXIF orientation (1 to 8) on a width x height target.
+     */
+    static AffineTransform orientationTransform(int orientation, int width, int height) {
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(width, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.translate(0, height); transform.scale(1, -1); }
+            case 5 -> { transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 6 -> { transform.translate(width, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.translate(width, height); transform.scale(-1, -1); transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 8 -> { transform.translate(0, height); transform.rotate(-Math.PI / 2); }
+            default -> { }
+        }
+        return transform;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param); // No metadata: EXIF is dropped
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Orientation tag (0x0112) of the EXIF APP1 segment, or 1 (upright) when there is none.
+     */
+    private static int exifOrientation(IIOMetadata metadata) {
+        try {
+            Node root = metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+            Node markers = findChild(root, "markerSequence");
+            if (markers == null) return 1;
+            for (Node marker = markers.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                if (!"unknown".equals(marker.getNodeName())) continue;
+                Node tag = marker.getAttributes().getNamedItem("MarkerTag");
+                if (tag == null || !"225".equals(tag.getNodeValue())) continue; // APP1
+                Object data = ((IIOMetadataNode) marker).getUserObject();
+                if (data instanceof byte[] bytes) {
+                    int orientation = readOrientation(bytes);
+                    if (orientation > 0) return orientation;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Unreadable metadata: keep the stored orientation
+        }
+        return 1;
+    }
+
+    private static Node findChild(Node parent, String name) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (name.equals(child.getNodeName())) return child;
+        }
+        return null;
+    }
+
+    private static int readOrientation(byte[] app1) {
+        // "Exif\0\0" followed by a TIFF header and the first IFD
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') return 0;
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 0 || ifd + 2 > tiff.limit()) return 0;
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) return 0;
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                int orientation = tiff.getShort(entry + 8) & 0xFFFF;
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,106 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Instruments every OpenAI attempt, tagged by operation (assess, re-assess, imageToText), model and outcome:
+ * {@code llm.calls} (latency), {@code llm.tokens} (prompt and completion tokens reported by the response)
+ * and {@code llm.cost} (USD estimated with {@code llm.pricing.<model>.prompt-per-million} and
+ * {@code llm.pricing.<model>.completion-per-million}; models without prices are not costed).
+ * {@code llm.prompt.prefix} tracks the size of the prompt prefix shared by requests of the same activity.
+ */
+@Component
+public class LlmMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    public LlmMetrics(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    public ChatResponse call(String operation, String model, Supplier<ChatResponse> call) {
+        ChatResponse response = time(operation, model, call);
+        recordUsage(operation, model, response);
+        return response;
+    }
+
+    /**
+     * Times a call whose response carries no usage, such as a stream.
+     */
+    public <T> T time(String operation, String model, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            if (LlmRequestScheduler.isRateLimited(e)) outcome = "rate_limited";
+            throw e;
+        } finally {
+            Timer.builder("llm.calls")
+                    .description("Latency of OpenAI calls, one per attempt")
+                    .tag("operation", operation)
+                    .tag("model", model)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Estimated tokens of the system message shared by every request of an activity. OpenAI only caches prompt
+     * prefixes of at least 1024 tokens, so smaller prefixes show that a run gets no cache discount.
+     */
+    public void recordPromptPrefix(String operation, String model, int tokens) {
+        DistributionSummary.builder("llm.prompt.prefix")
+                .description("Estimated tokens of the prompt prefix shared by requests of the same activity")
+                .baseUnit("tokens")
+                .tag("operation", operation)
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(tokens);
+    }
+
+    private void recordUsage(String operation, String model, ChatResponse response) {
+        if (response == null || response.getMetadata() == null || response.getMetadata().getUsage() == null) return;
+        Usage usage = response.getMetadata().getUsage();
+        long promptTokens = usage.getPromptTokens() == null ? 0 : usage.getPromptTokens();
+        long completionTokens = usage.getGenerationTokens() == null ? 0 : usage.getGenerationTokens();
+        tokens(operation, model, "prompt").increment(promptTokens);
+        tokens(operation, model, "completion").increment(completionTokens);
+
+        Double promptPrice = environment.getProperty("llm.pricing." + model + ".prompt-per-million", Double.class);
+        Double completionPrice = environment.getProperty("llm.pricing." + model + ".completion-per-million", Double.class);
+        if (promptPrice == null || completionPrice == null) return;
+        Counter.builder("llm.cost")
+                .description("Estimated cost of OpenAI calls")
+                .baseUnit("usd")
+                .tag("operation", operation)
+                .tag("model", model)
+                .register(meterRegistry)
+                .increment((promptTokens * promptPrice + completionTokens * completionPrice) / 1_000_000);
+    }
+
+    private Counter tokens(String operation, String model, String type) {
+        return Counter.builder("llm.tokens")
+                .description("Tokens used by OpenAI calls")
+                .baseUnit("tokens")
+                .tag("operation", operation)
+                .tag("model", model)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -10,44 +10,50 @@ import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
 import org.springframework.ai.openai.samples.helloworld.service.StudentManagementService;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 @Service
 public class StudentManagementServiceImplement implements StudentManagementService {
 
     private final FirebaseInit firebase;
+    private final FirestoreBulkWriter bulkWriter;
+    private final CourseIndex courseIndex;
+    private final FirestoreMetrics firestoreMetrics;
 
-    public StudentManagementServiceImplement(FirebaseInit firebase) {
+    public StudentManagementServiceImplement(FirebaseInit firebase, FirestoreBulkWriter bulkWriter, CourseIndex courseIndex,
+                                             FirestoreMetrics firestoreMetrics) {
         this.firebase = firebase;
+        this.bulkWriter = bulkWriter;
+        this.courseIndex = courseIndex;
+        this.firestoreMetrics = firestoreMetrics;
     }
 
     @Override
     public List<StudentDTO> getStudentsByCourse(String courseId) {
-        ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection(courseId).get();
-        try {
-            QuerySnapshot querySnapshot = querySnapshotApiFuture.get();
-            if (querySnapshot.isEmpty()) {
-                if (courseExists(courseId)) {
-                    return null; // Retorna null si el curso no existe
+        return courseIndex.loadStudents(courseId, () -> {
+            ApiFuture<QuerySnapshot> querySnapshotApiFuture = firestoreMetrics.time("students.query", getCollection(courseId).get());
+            try {
+                QuerySnapshot querySnapshot = querySnapshotApiFuture.get();
+                if (querySnapshot.isEmpty()) {
+                    if (courseExists(courseId)) {
+                        return null; // Retorna null si el curso no existe
+                    }
+                    return new ArrayList<>(); // Retorna una lista vacía si no hay estudiantes
                 }
-                return new ArrayList<>(); // Retorna una lista vacía si no hay estudiantes
-            }
 
-            List<StudentDTO> response = new ArrayList<>();
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                StudentDTO student = doc.toObject(StudentDTO.class);
-                if (student != null) {
-                    student.setId(doc.getId());
-                    response.add(student);
+                List<StudentDTO> response = new ArrayList<>();
+                for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+                    StudentDTO student = doc.toObject(StudentDTO.class);
+                    if (student != null) {
+                        student.setId(doc.getId());
+                        response.add(student);
+                    }
                 }
+                return response; // Retorna la lista de estudiantes si existen
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch students for course ID: " + courseId, e);
             }
-            return response; // Retorna la lista de estudiantes si existen
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch students for course ID: " + courseId, e);
-        }
+        });
     }
 
     @Override
@@ -60,17 +66,24 @@ public class StudentManagementServiceImplement implements StudentManagementServi
             throw new IllegalArgumentException("Students list cannot be null or empty");
         }
 
-        List<String> failedStudents = new ArrayList<>();
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        List<String> duplicatedStudents = new ArrayList<>();
         for (StudentDTO student : students) {
-            ApiFuture<WriteResult> writeResultApiFuture = getCollection(course).document(student.getId()).create(getDocData(student));
-            try {
-                if (writeResultApiFuture.get() == null) {
-                    failedStudents.add(student.getId());
-                }
-            } catch (Exception e) {
-                failedStudents.add(student.getId());
+            if (student == null || student.getId() == null) {
+                throw new IllegalArgumentException("Student or Student ID cannot be null");
+            }
+            if (documents.putIfAbsent(student.getId(), getDocData(student)) != null) {
+                duplicatedStudents.add(student.getId()); // Same as before: the second create of an ID fails
             }
         }
+        List<String> failedStudents = new ArrayList<>(bulkWriter.createAll(getCollection(course), documents));
+        Set<String> failedIds = new HashSet<>(failedStudents);
+        for (StudentDTO student : students) {
+            if (!failedIds.contains(student.getId())) {
+                courseIndex.studentSaved(course, student);
+            }
+        }
+        failedStudents.addAll(duplicatedStudents);
         return failedStudents;
     }
 
@@ -84,8 +97,10 @@ public class StudentManagementServiceImplement implements StudentManagementServi
             return null; // Retorna null si el curso no existe
         }
         try {
-            ApiFuture<WriteResult> writeResultApiFuture = getCollection(course).document(student.getId()).create(getDocData(student));
+            ApiFuture<WriteResult> writeResultApiFuture = firestoreMetrics.time("students.create",
+                    getCollection(course).document(student.getId()).create(getDocData(student)));
             if (null != writeResultApiFuture.get()) {
+                courseIndex.studentSaved(course, student);
                 return student;
             } else {
                 throw new RuntimeException("Failed to add student");
@@ -100,14 +115,14 @@ public class StudentManagementServiceImplement implements StudentManagementServi
         if (courseExists(courseId)) {
             return null; // Retorna null si el curso no existe
         }
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection(courseId).document(student.getId()).get();
         try {
-            DocumentSnapshot document = documentSnapshotApiFuture.get();
-            if (!document.exists()) {
+            if (courseIndex.getStudent(courseId, student.getId()) == null) {
                 throw new IllegalArgumentException("Student with ID: " + student.getId() + " does not exist in course with ID: " + courseId);
             }
-            ApiFuture<WriteResult> writeResultApiFuture = getCollection(courseId).document(student.getId()).set(getDocData(student));
+            ApiFuture<WriteResult> writeResultApiFuture = firestoreMetrics.time("students.set",
+                    getCollection(courseId).document(student.getId()).set(getDocData(student)));
             writeResultApiFuture.get();
+            courseIndex.studentSaved(courseId, student);
             return student;
         } catch (IllegalArgumentException e) {
             throw e;
@@ -122,13 +137,14 @@ public class StudentManagementServiceImplement implements StudentManagementServi
             return null; // Retorna null si el curso no existe
         }
 //        ApiFuture<WriteResult> writeResultApiFuture = getCollection(courseId).document(studentId).delete();
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection(courseId).document(studentId).get();
         try {
-            DocumentSnapshot document = documentSnapshotApiFuture.get();
-            if (document.exists()) {
-                ApiFuture<WriteResult> writeResultApiFuture = getCollection(courseId).document(studentId).delete();
+            StudentDTO student = courseIndex.getStudent(courseId, studentId);
+            if (student != null) {
+                ApiFuture<WriteResult> writeResultApiFuture = firestoreMetrics.time("students.delete",
+                        getCollection(courseId).document(studentId).delete());
                 writeResultApiFuture.get();
-                return document.toObject(StudentDTO.class);
+                courseIndex.studentRemoved(courseId, studentId);
+                return student;
             } else {
                 throw new IllegalArgumentException("Student with ID: " + studentId + " does not exist in course with ID: " + courseId);
             }
@@ -140,13 +156,8 @@ public class StudentManagementServiceImplement implements StudentManagementServi
     }
 
     private boolean courseExists(String courseId) {
-        ApiFuture<DocumentSnapshot> docSnapshot = firebase.getFirestore()
-                .collection("courses")
-                .document(courseId)
-                .get();
-
         try {
-            return !docSnapshot.get().exists(); // Verifica si el curso no existe
+            return !courseIndex.courseExists(courseId); // Verifica si el curso no existe
         } catch (Exception e) {
             return true; // Si ocurre un error, asumimos que si existe
         }
@@ -0,0 +1,72 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.PageTextDTO;
+import org.springframework.ai.openai.samples.helloworld.dto.TranscribedSubmissionDTO;
+import org.springframework.ai.openai.samples.helloworld.service.ActivityManagementService;
+import org.springframework.ai.openai.samples.helloworld.service.AssessmentManagementService;
+import org.springframework.ai.openai.samples.helloworld.service.GradingJobService;
+import org.springframework.ai.openai.samples.helloworld.service.SubmissionTranscriptionService;
+import org.springframework.ai.openai.samples.helloworld.service.TranslatorManagementService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handwritten submissions in one request: the pages are transcribed in parallel, joined into the submission and
+ * written to {@code activities/{activityId}/assessments/{studentId}}, and grading can be queued right away.
+ */
+@Service
+public class SubmissionTranscriptionServiceImplement implements SubmissionTranscriptionService {
+    private final TranslatorManagementService translatorService;
+    private final ActivityManagementService activityService;
+    private final AssessmentManagementService assessmentService;
+    private final GradingJobService gradingJobService;
+
+    public SubmissionTranscriptionServiceImplement(
+            TranslatorManagementService translatorService,
+            ActivityManagementService activityService,
+            AssessmentManagementService assessmentService,
+            GradingJobService gradingJobService
+    ) {
+        this.translatorService = translatorService;
+        this.activityService = activityService;
+        this.assessmentService = assessmentService;
+        this.gradingJobService = gradingJobService;
+    }
+
+    @Override
+    public TranscribedSubmissionDTO transcribeSubmission(String activityId, String studentId, List<MultipartFile> files,
+                                                         String fileType, boolean overwrite, boolean grade,
+                                                         boolean bypassCache) {
+        if (activityId == null || activityId.isBlank())
+            throw new IllegalArgumentException("Activity ID cannot be null or empty.");
+        if (studentId == null || studentId.isBlank())
+            throw new IllegalArgumentException("Student ID cannot be null or empty.");
+        // Checked before transcribing so a wrong activity does not cost any vision calls
+        if (activityService.getActivity(activityId) == null) return null;
+
+        List<PageTextDTO> pages = translatorService.imagesToText(files);
+        for (PageTextDTO page : pages) {
+            // A submission with a missing page would be graded as if the student left it blank
+            if (page.getError() != null) {
+                throw new RuntimeException("Failed to transcribe page " + page.getPage() + " of " + page.getFileName()
+                        + ": " + page.getError());
+            }
+        }
+
+        // An already graded assessment is refused unless overwrite is set; the pages stay in the transcription cache,
+        // so a retry with overwrite does not transcribe them again
+        String submission = pages.stream().map(PageTextDTO::getText).collect(Collectors.joining("\n\n"));
+        AssessmentDTO assessment = assessmentService.saveSubmission(activityId, studentId, submission, fileType, overwrite);
+        if (assessment == null) return null;
+
+        TranscribedSubmissionDTO result = new TranscribedSubmissionDTO();
+        result.setAssessment(assessment);
+        result.setPages(pages);
+        if (grade) result.setJob(gradingJobService.submit(activityId, List.of(studentId), bypassCache));
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package org.springframework.ai.openai.samples.helloworld.service.implement;
 
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.codec.binary.Base64;
 import org.springframework.ai.chat.ChatClient;
 import org.springframework.ai.chat.ChatResponse;
@@ -8,56 +9,200 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.OpenAiImageOptions;
+import org.springframework.ai.openai.samples.helloworld.dto.PageTextDTO;
 import org.springframework.ai.openai.samples.helloworld.service.TranslatorManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class TranslatorManagementServiceImplement implements TranslatorManagementService {
+    private static final String MODEL = "gpt-4o";
+    private static final String DESCRIBE_PROMPT = "Explain what do you see on this picture?";
+    private static final String TRANSCRIBE_PROMPT = "Transcribe all the text in this image exactly as written, including "
+            + "handwriting, keeping its line breaks. Answer only with the transcription, without comments.";
+
     private final ChatClient chatClient;
+    private final LlmRequestScheduler llmScheduler;
+    private final LlmMetrics llmMetrics;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ImageDescriptionCache descriptionCache;
+    private final int maxPages;
+    private final ExecutorService executor;
+    private final Semaphore permits;
 
     @Autowired
-    public TranslatorManagementServiceImplement(ChatClient chatClient) {
+    public TranslatorManagementServiceImplement(
+            ChatClient chatClient,
+            LlmRequestScheduler llmScheduler,
+            LlmMetrics llmMetrics,
+            ImagePreprocessor imagePreprocessor,
+            ImageDescriptionCache descriptionCache,
+            @Value("${translator.batch.max-concurrency:4}") int maxConcurrency,
+            @Value("${translator.batch.max-pages:50}") int maxPages,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (maxConcurrency < 1 || maxPages < 1) {
+            throw new IllegalArgumentException("Transcription batch limits must be greater than zero");
+        }
         this.chatClient = chatClient;
+        this.llmScheduler = llmScheduler;
+        this.llmMetrics = llmMetrics;
+        this.imagePreprocessor = imagePreprocessor;
+        this.descriptionCache = descriptionCache;
+        this.maxPages = maxPages;
+        if (virtualThreads) {
+            // Virtual threads are not pooled, so the cap is a semaphore around each vision call
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("transcription-worker-", 1).factory());
+            this.permits = new Semaphore(maxConcurrency);
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            // The pool size is the cap shared by every batch
+            this.executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "transcription-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.permits = null;
+        }
     }
 
     @Override
     public String imageToText(MultipartFile image) {
-        System.out.println("Image to text");
-        System.out.println(image.getContentType());
+        // The upload is decoded straight from its stream; only the downscaled JPEG is kept and sent
+        try (InputStream input = image.getInputStream()) {
+            return describe(imagePreprocessor.prepare(input));
+        } catch (IOException e) {
+            throw new RuntimeException("Error processing the image", e);
+        }
+    }
 
-        // image to mimetype image png
+    @Override
+    public List<PageTextDTO> imagesToText(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) throw new IllegalArgumentException("At least one file is required");
+        List<PageTextDTO> pages = new ArrayList<>();
+        List<Future<String>> futures = new ArrayList<>();
         try {
-            Resource imageResource = new InputStreamResource(image.getInputStream());
-
-            UserMessage userMessage = new UserMessage(
-                    "Explain what do you see on this picture?",
-                    // new Media(MimeTypeUtils.IMAGE_PNG, image)
-                    Collections.singletonList(new Media(MimeTypeUtils.IMAGE_PNG, imageResource)) // Cambiar aquí
-            );
-
-            ChatResponse response = chatClient.call(new Prompt(
-                    userMessage,
-                    OpenAiChatOptions.builder()
-                            .withModel("gpt-4o")
-                            .build()
-            ));
-
-            return response.toString();
+            // Pages are prepared one after another while the vision calls of earlier pages are already running
+            for (MultipartFile file : files) {
+                try (InputStream input = new BufferedInputStream(file.getInputStream())) {
+                    if (ImagePreprocessor.isPdf(input)) {
+                        int firstIndex = pages.size();
+                        imagePreprocessor.preparePdf(input, maxPages - firstIndex, prepared -> {
+                            pages.add(getPage(pages.size() + 1, file, pages.size() - firstIndex + 1));
+                            futures.add(submit(prepared));
+                        });
+                    } else {
+                        if (pages.size() >= maxPages) {
+                            throw new IllegalArgumentException("The batch has more than the " + maxPages + " pages allowed");
+                        }
+                        ImagePreprocessor.PreparedImage prepared = imagePreprocessor.prepare(input);
+                        pages.add(getPage(pages.size() + 1, file, 1));
+                        futures.add(submit(prepared));
+                    }
+                }
+            }
         } catch (IOException e) {
-            throw new RuntimeException("Error processing the image", e);
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Error processing the files", e);
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
         }
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                pages.get(i).setText(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new RuntimeException("Interrupted while transcribing the files", e);
+            } catch (ExecutionException e) {
+                // A failed page is reported in place; the other pages keep their text
+                pages.get(i).setError(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            }
+        }
+        return pages;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Future<String> submit(ImagePreprocessor.PreparedImage prepared) {
+        return executor.submit(() -> {
+            if (permits == null) return transcribe(prepared);
+            permits.acquire();
+            try {
+                return transcribe(prepared);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private String describe(ImagePreprocessor.PreparedImage prepared) {
+        Optional<String> cached = descriptionCache.get("describe", prepared.hash());
+        if (cached.isPresent()) return cached.get();
+        String description = callVision("imageToText", DESCRIBE_PROMPT, prepared).toString();
+        descriptionCache.put("describe", prepared.hash(), description);
+        return description;
+    }
+
+    private String transcribe(ImagePreprocessor.PreparedImage prepared) {
+        // Keyed by the bytes, not the perceptual hash: two students' filled-in copies of the same worksheet can share
+        // a difference hash, and one must never get the other's text
+        long[] contentHash = ImagePreprocessor.contentHash(prepared.content());
+        Optional<String> cached = descriptionCache.getExact("transcribe", contentHash);
+        if (cached.isPresent()) return cached.get();
+        String text = callVision("imagesToText", TRANSCRIBE_PROMPT, prepared).getResult().getOutput().getContent();
+        descriptionCache.put("transcribe", contentHash, text);
+        return text;
+    }
+
+    private ChatResponse callVision(String operation, String instruction, ImagePreprocessor.PreparedImage prepared) {
+        UserMessage userMessage = new UserMessage(
+                instruction,
+                Collections.singletonList(new Media(prepared.mimeType(), prepared.content()))
+        );
+
+        int estimatedTokens = llmScheduler.estimateTokens(userMessage.getContent(), null) + prepared.tokens();
+        return llmScheduler.execute(estimatedTokens, () -> llmMetrics.call(operation, MODEL,
+                () -> chatClient.call(new Prompt(
+                        userMessage,
+                        OpenAiChatOptions.builder()
+                                .withModel(MODEL)
+                                .build()
+                ))));
+    }
+
+    private static PageTextDTO getPage(int index, MultipartFile file, int page) {
+        PageTextDTO pageText = new PageTextDTO();
+        pageText.setIndex(index);
+        pageText.setFileName(file.getOriginalFilename());
+        pageText.setPage(page);
+        return pageText;
     }
 
     private String convertToBase64(MultipartFile image) {
@@ -3,49 +3,48 @@ package org.springframework.ai.openai.samples.helloworld.service.implement;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
 import com.google.cloud.firestore.WriteResult;
+import org.springframework.ai.openai.samples.helloworld.dto.PageDTO;
 import org.springframework.ai.openai.samples.helloworld.dto.UserDTO;
 import org.springframework.ai.openai.samples.helloworld.firebase.FirebaseInit;
 import org.springframework.ai.openai.samples.helloworld.service.UserManagementService;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
 public class UserManagementServiceImplement implements UserManagementService {
+    private static final String[] SUMMARY_FIELDS = {"id", "mail", "displayName", "photoURL"};
 
     private final FirebaseInit firebase;
+    private final FirestorePager pager;
+    private final FirestoreMetrics firestoreMetrics;
 
-    public UserManagementServiceImplement(FirebaseInit firebase) {
+    public UserManagementServiceImplement(FirebaseInit firebase, FirestorePager pager, FirestoreMetrics firestoreMetrics) {
         this.firebase = firebase;
+        this.pager = pager;
+        this.firestoreMetrics = firestoreMetrics;
     }
 
     @Override
-    public List<UserDTO> list() {
-        List<UserDTO> response = new ArrayList<>();
+    public PageDTO<UserDTO> list(String cursor, Integer limit, String fields) {
         try {
-            ApiFuture<QuerySnapshot> querySnapshotApiFuture = getCollection().get();
-            for (DocumentSnapshot doc : querySnapshotApiFuture.get().getDocuments()) {
+            return pager.fetch(getCollection(), cursor, limit, FirestorePager.projection(fields, SUMMARY_FIELDS), doc -> {
                 UserDTO user = doc.toObject(UserDTO.class);
-                if (user != null) {
-                    user.setId(doc.getId());
-                    response.add(user);
-                }
-            }
-            return response; // Return the list of users
+                if (user != null) user.setId(doc.getId());
+                return user;
+            });
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
-            // e.printStackTrace(); // Log de error para diagnóstico
-            return response; // Return an empty list if an exception occurs
+            throw new RuntimeException("Failed to fetch users", e);
         }
     }
 
     @Override
     public UserDTO getUser(String id) {
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("users.get", getCollection().document(id).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (document.exists()) {
@@ -68,7 +67,7 @@ public class UserManagementServiceImplement implements UserManagementService {
         }
 
         try {
-            ApiFuture<WriteResult> writeResultApiFuture = getCollection().document(user.getId()).create(getDocData(user));
+            ApiFuture<WriteResult> writeResultApiFuture = firestoreMetrics.time("users.create", getCollection().document(user.getId()).create(getDocData(user)));
             WriteResult result = writeResultApiFuture.get();
 
             if (result != null) {
@@ -87,11 +86,11 @@ public class UserManagementServiceImplement implements UserManagementService {
         if (!user.getId().equals(id)) {
             throw new IllegalArgumentException("User ID cannot be null or different from the ID in the URL");
         }
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get(); // Search for the user if it exists
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("users.get", getCollection().document(id).get()); // Search for the user if it exists
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (document.exists()) {
-                ApiFuture<WriteResult> writeResultApiFuture = getCollection().document(id).set(getDocData(user));
+                ApiFuture<WriteResult> writeResultApiFuture = firestoreMetrics.time("users.set", getCollection().document(id).set(getDocData(user)));
                 writeResultApiFuture.get();
                 return user; // Return the user if it was updated successfully
             } else {
@@ -105,12 +104,12 @@ public class UserManagementServiceImplement implements UserManagementService {
 
     @Override
     public UserDTO delete(String id) {
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = getCollection().document(id).get();
+        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = firestoreMetrics.time("users.get", getCollection().document(id).get());
         try {
             DocumentSnapshot document = documentSnapshotApiFuture.get();
             if (document.exists()) {
                 // El usuario existe, lo eliminamos
-                ApiFuture<WriteResult> writeResultApiFuture = getCollection().document(id).delete();
+                ApiFuture<WriteResult> writeResultApiFuture = firestoreMetrics.time("users.delete", getCollection().document(id).delete());
                 writeResultApiFuture.get(); // Espera que la eliminación se complete
                 return document.toObject(UserDTO.class); // Devuelve el objeto eliminado
             } else {
@@ -0,0 +1,40 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirestorePagerTest {
+    private static final String[] SUMMARY_FIELDS = {"id", "name"};
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "full"})
+    void fullOrMissingFieldsReadEveryField(String fields) {
+        assertNull(FirestorePager.projection(fields, SUMMARY_FIELDS));
+    }
+
+    @Test
+    void summaryReadsTheSummaryFields() {
+        assertSame(SUMMARY_FIELDS, FirestorePager.projection("summary", SUMMARY_FIELDS));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"partial", "SUMMARY", "id,name"})
+    void unknownFieldsAreRejected(String fields) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FirestorePager.projection(fields, SUMMARY_FIELDS));
+        assertEquals("Unsupported fields value: " + fields + " (expected 'full' or 'summary')", e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void limitMustBeGreaterThanZero(int limit) {
+        // Rejected before any query is built, so no Firestore is needed
+        FirestorePager pager = new FirestorePager(null, 100);
+        assertThrows(IllegalArgumentException.class, () -> pager.fetch(null, null, limit, null, doc -> doc));
+    }
+}
@@ -0,0 +1,87 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.ai.openai.samples.helloworld.dto.AssessmentDTO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.ai.openai.samples.helloworld.service.implement.GradingSupport.ParsedGrades;
+import static org.springframework.ai.openai.samples.helloworld.service.implement.GradingSupport.parseGrades;
+
+class GradingSupportTest {
+    // Recorded gpt-4o responses shared with the JMH benchmarks
+    private static final Path RESPONSES = Path.of("src/jmh/resources/grading-responses");
+
+    @ParameterizedTest
+    @CsvSource({"3, 7.27, 2.32", "6, 7.74, 1.33", "12, 7.6, 0.75"})
+    void parsesRecordedResponses(int rubricSize, double globalGrade, double firstComponentGrade) throws IOException {
+        String response = Files.readString(RESPONSES.resolve("rubric-" + rubricSize + ".json"), StandardCharsets.UTF_8);
+
+        ParsedGrades grades = parseGrades(response);
+
+        assertEquals(globalGrade, grades.globalGrade());
+        assertEquals(rubricSize, grades.componentsGrades().size());
+        AssessmentDTO.ComponentGrade first = grades.componentsGrades().get("Comprensión del problema");
+        assertEquals(firstComponentGrade, first.getGrade());
+        assertNotNull(first.getMaxGrade());
+        assertFalse(first.getContent().isBlank());
+        // Components keep the order of the response
+        assertEquals(List.of("Comprensión del problema", "Diseño del algoritmo", "Uso de estructuras de control"),
+                grades.componentsGrades().keySet().stream().limit(3).toList());
+    }
+
+    @Test
+    void missingGlobalGradeIsNull() {
+        ParsedGrades grades = parseGrades("""
+                {"properties": {"componentsGrades": {
+                    "Diseño del algoritmo": {"properties": {"content": "Bien", "grade": 1.5, "maxGrade": 2}}
+                }}}""");
+
+        assertNull(grades.globalGrade());
+        assertEquals(1.5, grades.componentsGrades().get("Diseño del algoritmo").getGrade());
+    }
+
+    @Test
+    void readsNumbersSentAsStrings() {
+        ParsedGrades grades = parseGrades("""
+                {"globalGrade": " 7,5 ", "componentsGrades": {
+                    "Diseño del algoritmo": {"content": "Bien", "grade": "2.5", "maxGrade": "sin nota"}
+                }}""");
+
+        assertEquals(7.5, grades.globalGrade());
+        AssessmentDTO.ComponentGrade component = grades.componentsGrades().get("Diseño del algoritmo");
+        assertEquals(2.5, component.getGrade());
+        assertNull(component.getMaxGrade());
+    }
+
+    @Test
+    void skipsComponentsThatAreNotObjects() {
+        ParsedGrades grades = parseGrades("""
+                {"globalGrade": 8, "componentsGrades": {"Diseño del algoritmo": 3, "Pruebas": {"grade": 1}}}""");
+
+        assertEquals(8.0, grades.globalGrade());
+        assertEquals(List.of("Pruebas"), List.copyOf(grades.componentsGrades().keySet()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"pending,, true", ",, true", "pending, 7.5, false", "reviewed, 7.5, false", "missing,, false"})
+    void needsGradingWithoutTheFlagIsToldFromStatusAndGrade(String status, Double globalGrade, boolean needsGrading) {
+        assertEquals(needsGrading, GradingSupport.needsGrading(status, globalGrade));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "not json", "[1, 2]", "{\"globalGrade\": 7", "{\"globalGrade\": 7,}"})
+    void malformedResponsesAreEmpty(String response) {
+        assertSame(ParsedGrades.EMPTY, parseGrades(response));
+    }
+}
@@ -0,0 +1,89 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDescriptionCacheTest {
+    private static final long[] HASH = {0x0123456789abcdefL, -1L, 0L, 42L};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void distanceCountsTheDifferentBits() {
+        assertEquals(0, ImageDescriptionCache.distance(HASH, HASH.clone()));
+        assertEquals(3, ImageDescriptionCache.distance(HASH, flip(HASH, 3)));
+        assertEquals(65, ImageDescriptionCache.distance(new long[]{0, -1L, 0, 0}, new long[]{0, 0, 0, 1}));
+    }
+
+    @Test
+    void nearIdenticalImagesShareTheAnswer() {
+        ImageDescriptionCache cache = cache(10);
+        cache.put("describe", HASH, "Hoja de ejercicios de fracciones");
+
+        assertEquals(Optional.of("Hoja de ejercicios de fracciones"), cache.get("describe", flip(HASH, 3)));
+        assertEquals(Optional.empty(), cache.get("describe", flip(HASH, 11)));
+        assertEquals(Optional.empty(), cache.get("transcribe", HASH));
+    }
+
+    @Test
+    void exactLookupsIgnoreNearIdenticalImages() {
+        ImageDescriptionCache cache = cache(10);
+        cache.put("transcribe", HASH, "1/2 + 1/4 = 3/4");
+
+        assertEquals(Optional.of("1/2 + 1/4 = 3/4"), cache.getExact("transcribe", HASH));
+        assertEquals(Optional.empty(), cache.getExact("transcribe", flip(HASH, 1)));
+    }
+
+    @Test
+    void diskTierSurvivesARestart() throws IOException {
+        cache(10).put("transcribe", HASH, "1/2 + 1/4 = 3/4");
+        Files.writeString(directory.resolve("transcribe-left-over.tmp"), "partial");
+
+        ImageDescriptionCache restarted = cache(10);
+
+        assertEquals(Optional.of("1/2 + 1/4 = 3/4"), restarted.getExact("transcribe", HASH));
+        assertFalse(Files.exists(directory.resolve("transcribe-left-over.tmp")));
+    }
+
+    @Test
+    void diskTierDeletesTheLeastRecentlyUsedFilesBeyondItsLimit() throws IOException {
+        ImageDescriptionCache cache = cache(2);
+        for (long i = 1; i <= 3; i++) {
+            cache.put("describe", new long[]{i, 0, 0, 0}, "Página " + i);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        assertFalse(Files.exists(directory.resolve(fileName("describe", new long[]{1, 0, 0, 0}))));
+        assertTrue(Files.exists(directory.resolve(fileName("describe", new long[]{3, 0, 0, 0}))));
+    }
+
+    private ImageDescriptionCache cache(int diskMaxEntries) {
+        return new ImageDescriptionCache(new SimpleMeterRegistry(), true, 10, 1000, true, diskMaxEntries,
+                directory.toString());
+    }
+
+    private static long[] flip(long[] hash, int bits) {
+        long[] flipped = hash.clone();
+        for (int bit = 0; bit < bits; bit++) flipped[bit % flipped.length] ^= 1L << bit;
+        return flipped;
+    }
+
+    private static String fileName(String kind, long[] hash) {
+        StringBuilder name = new StringBuilder(kind).append('-');
+        for (long word : hash) name.append(HexFormat.of().toHexDigits(word));
+        return name.append(".txt").toString();
+    }
+}
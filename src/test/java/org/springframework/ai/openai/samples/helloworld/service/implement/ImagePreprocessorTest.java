@@ -0,0 +1,141 @@
+package org.springframework.ai.openai.samples.helloworld.service.implement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePreprocessorTest {
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 200;
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 1, 255",      // One tile
+            "512, 512, 255",
+            "513, 512, 425",  // Two tiles
+            "768, 768, 765",  // Four tiles, the default translator.image.max-tokens
+            "2048, 768, 1445" // Eight tiles
+    })
+    void tokensCountTilesOf512Pixels(int width, int height, int tokens) {
+        assertEquals(tokens, ImagePreprocessor.tokens(width, height));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 0, 0",
+            "2, 300, 0",
+            "3, 300, 200",
+            "4, 0, 200",
+            "5, 0, 0",
+            "6, 300, 0",
+            "7, 300, 200",
+            "8, 0, 200"
+    })
+    void orientationTransformMovesTheStoredOriginWhereExifPutsIt(int orientation, double x, double y) {
+        AffineTransform transform = ImagePreprocessor.orientationTransform(orientation, WIDTH, HEIGHT);
+
+        Point2D origin = transform.transform(new Point2D.Double(0, 0), null);
+        assertEquals(x, origin.getX(), 1e-9);
+        assertEquals(y, origin.getY(), 1e-9);
+
+        // The stored image (sides swapped for orientations 5 to 8) covers exactly the target
+        boolean swapsSides = orientation >= 5;
+        double storedWidth = swapsSides ? HEIGHT : WIDTH;
+        double storedHeight = swapsSides ? WIDTH : HEIGHT;
+        Set<Point2D> corners = new HashSet<>();
+        for (double[] corner : new double[][]{{0, 0}, {storedWidth, 0}, {0, storedHeight}, {storedWidth, storedHeight}}) {
+            Point2D mapped = transform.transform(new Point2D.Double(corner[0], corner[1]), null);
+            corners.add(new Point2D.Double(Math.round(mapped.getX()), Math.round(mapped.getY())));
+        }
+        assertEquals(Set.of(new Point2D.Double(0, 0), new Point2D.Double(WIDTH, 0),
+                new Point2D.Double(0, HEIGHT), new Point2D.Double(WIDTH, HEIGHT)), corners);
+    }
+
+    @Test
+    void unknownOrientationIsIdentity() {
+        assertTrue(ImagePreprocessor.orientationTransform(0, WIDTH, HEIGHT).isIdentity());
+        assertTrue(ImagePreprocessor.orientationTransform(9, WIDTH, HEIGHT).isIdentity());
+    }
+
+    @Test
+    void differenceHashSetsABitWhereTheRightCellIsBrighter() {
+        long[] brighterToTheRight = ImagePreprocessor.differenceHash(gradient(170, 160, false));
+        long[] darkerToTheRight = ImagePreprocessor.differenceHash(gradient(170, 160, true));
+
+        assertEquals(4, brighterToTheRight.length);
+        for (long word : brighterToTheRight) assertEquals(-1L, word);
+        for (long word : darkerToTheRight) assertEquals(0L, word);
+    }
+
+    @Test
+    void differenceHashIsStableUnderRescalingAndSensitiveToContent() {
+        BufferedImage page = noise(340, 320, 1);
+        BufferedImage halfSize = scaledDown(page);
+        BufferedImage otherPage = noise(340, 320, 2);
+
+        long[] hash = ImagePreprocessor.differenceHash(page);
+        assertTrue(ImageDescriptionCache.distance(hash, ImagePreprocessor.differenceHash(halfSize)) <= 10);
+        assertTrue(ImageDescriptionCache.distance(hash, ImagePreprocessor.differenceHash(otherPage)) > 64);
+    }
+
+    @Test
+    void differenceHashOfAUniformImageIsZero() {
+        BufferedImage blank = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        for (long word : ImagePreprocessor.differenceHash(blank)) assertEquals(0L, word);
+    }
+
+    @Test
+    void contentHashIsTheSha256OfTheBytes() {
+        // SHA-256("abc") = ba7816bf8f01cfea 414140de5dae2223 b00361a396177a9c b410ff61f20015ad
+        assertArrayEquals(new long[]{0xba7816bf8f01cfeaL, 0x414140de5dae2223L, 0xb00361a396177a9cL, 0xb410ff61f20015adL},
+                ImagePreprocessor.contentHash("abc".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static BufferedImage gradient(int width, int height, boolean reversed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            int level = (reversed ? width - 1 - x : x) * 255 / (width - 1);
+            for (int y = 0; y < height; y++) image.setRGB(x, y, level << 16 | level << 8 | level);
+        }
+        return image;
+    }
+
+    /**
+     * Blocks of random grey levels, the size of the hash cells, so every cell comparison is decided by the content.
+     */
+    private static BufferedImage noise(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int blockWidth = width / 17;
+        int blockHeight = height / 16;
+        for (int row = 0; row < 16; row++) {
+            for (int column = 0; column < 17; column++) {
+                int level = random.nextInt(256);
+                for (int y = row * blockHeight; y < (row + 1) * blockHeight; y++) {
+                    for (int x = column * blockWidth; x < (column + 1) * blockWidth; x++) {
+                        image.setRGB(x, y, level << 16 | level << 8 | level);
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage scaledDown(BufferedImage image) {
+        BufferedImage half = new BufferedImage(image.getWidth() / 2, image.getHeight() / 2, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < half.getHeight(); y++) {
+            for (int x = 0; x < half.getWidth(); x++) half.setRGB(x, y, image.getRGB(x * 2, y * 2));
+        }
+        return half;
+    }
+}